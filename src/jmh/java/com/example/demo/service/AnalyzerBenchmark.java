@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FileMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis hot path: scanning decoded text, scanning a UTF-8 upload through a Reader
+ * and scanning the raw bytes with the ASCII fast path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzerBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE", "LONG_LINES", "COMMENT_HEAVY"})
+    public SourceCorpus.Shape shape;
+
+    private String content;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        content = SourceCorpus.generate(shape);
+        bytes = content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public FileMetrics analyzeString() {
+        return new SourceScanner().accept(content).finish("Generated.java");
+    }
+
+    @Benchmark
+    public FileMetrics analyzeStream() throws IOException {
+        InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+        return new SourceScanner().accept(reader).finish("Generated.java");
+    }
+
+    @Benchmark
+    public FileMetrics analyzeBytes() {
+        return new SourceScanner().accept(bytes, 0, bytes.length).finish("Generated.java");
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CodeAnalysis;
+import com.example.demo.model.FileMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save-path work that does not touch the database: entity mapping and the analysis_data JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceMappingBenchmark {
+
+    private FileMetrics metrics;
+    private AnalyzerService analyzerService;
+
+    @Setup
+    public void setUp() {
+        metrics = new SourceScanner().accept(SourceCorpus.generate(SourceCorpus.Shape.MEDIUM)).finish("Generated.java");
+
+        // The service is normally wired by Spring; only the JSON collaborators are needed here
+        analyzerService = new AnalyzerService(new ObjectMapper(), new AnalyzerMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public CodeAnalysis mapEntity() {
+        return new CodeAnalysis(7, 11, metrics.getFileName(), metrics);
+    }
+
+    @Benchmark
+    public String serializeAnalysisData() {
+        return analyzerService.toAnalysisJson(metrics, 7, 11);
+    }
+}
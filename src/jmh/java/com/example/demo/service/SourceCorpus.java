@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import java.util.Random;
+
+/**
+ * Deterministic synthetic Java sources for the benchmarks.
+ */
+public final class SourceCorpus {
+
+    public enum Shape {
+        SMALL,          // ~60 lines, a typical DTO
+        MEDIUM,         // ~2,000 lines of mixed code
+        HUGE,           // ~60,000 lines, generated-source sized
+        LONG_LINES,     // minified: a few lines of ~100k chars each
+        COMMENT_HEAVY   // ~5,000 lines, mostly javadoc and line comments
+    }
+
+    private static final String[] STATEMENTS = {
+            "        int count = values.size();",
+            "        String name = input.trim();",
+            "        if (count > 0 && name != null) {",
+            "            for (int i = 0; i < count; i++) {",
+            "                total += values.get(i);",
+            "            }",
+            "        }",
+            "        while (iterator.hasNext()) { iterator.next(); }",
+            "        switch (kind) { case 1: break; default: break; }",
+            "        try {",
+            "            process(name);",
+            "        } catch (IllegalStateException e) {",
+            "            log(e);",
+            "        } finally {",
+            "            close();",
+            "        }",
+            "        double ratio = (double) total / count;",
+            "        boolean ok = ratio > 0.5 || force;",
+            ""
+    };
+
+    private SourceCorpus() {}
+
+    public static String generate(Shape shape) {
+        Random random = new Random(42);
+        switch (shape) {
+            case SMALL: return classWithMethods(random, 3, 12, 0);
+            case MEDIUM: return classWithMethods(random, 80, 22, 1);
+            case HUGE: return classWithMethods(random, 2400, 22, 1);
+            case LONG_LINES: return minified(random, 8, 100_000);
+            case COMMENT_HEAVY: return classWithMethods(random, 150, 8, 20);
+            default: throw new IllegalArgumentException(shape.name());
+        }
+    }
+
+    private static String classWithMethods(Random random, int methods, int statementsPerMethod, int commentLinesPerMethod) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package com.example.generated;\n\n");
+        sb.append("import java.util.List;\nimport java.util.Map;\nimport java.util.Iterator;\n\n");
+        sb.append("/*\n * Generated source\n */\n");
+        sb.append("public class Generated extends Base implements Runnable {\n\n");
+        sb.append("    private final List<Integer> values;\n    protected String label = \"x\";\n\n");
+        for (int m = 0; m < methods; m++) {
+            if (commentLinesPerMethod > 0) {
+                sb.append("    /**\n");
+                for (int c = 1; c < commentLinesPerMethod; c++) {
+                    sb.append("     * Explains step ").append(c).append(" of method ").append(m).append('\n');
+                }
+                sb.append("     */\n");
+            }
+            if (m % 5 == 0) sb.append("    @Override\n");
+            sb.append("    public long method").append(m).append("(String input, int kind) {\n");
+            sb.append("        long total = 0;\n");
+            for (int s = 0; s < statementsPerMethod; s++) {
+                sb.append(STATEMENTS[random.nextInt(STATEMENTS.length)]).append('\n');
+                if (commentLinesPerMethod > 1 && random.nextInt(3) == 0) sb.append("        // note: é ü ß\n");
+            }
+            sb.append("        return total;\n    }\n\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String minified(Random random, int lines, int lineLength) {
+        StringBuilder sb = new StringBuilder(lines * (lineLength + 1));
+        for (int l = 0; l < lines; l++) {
+            int start = sb.length();
+            while (sb.length() - start < lineLength) {
+                sb.append(STATEMENTS[random.nextInt(STATEMENTS.length)].trim()).append(' ');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
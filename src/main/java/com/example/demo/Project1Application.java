@@ -1,12 +1,19 @@
 package com.example.demo;
 
+import com.example.demo.cli.AnalyzeCommand;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class Project1Application {
 
 	public static void main(String[] args) {
+		// "analyze <dir> ..." runs the headless source-tree analysis instead of the web service
+		if (args.length > 0 && args[0].equals("analyze")) {
+			System.exit(AnalyzeCommand.run(Arrays.copyOfRange(args, 1, args.length)));
+		}
 		SpringApplication.run(Project1Application.class, args);
 	}
 
@@ -0,0 +1,198 @@
+package com.example.demo.cli;
+
+import com.example.demo.Project1Application;
+import com.example.demo.model.FileMetrics;
+import com.example.demo.service.AnalyzerService;
+import com.example.demo.service.SourceTreeAnalyzer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Headless mode: {@code java -jar app.jar analyze <dir> [--format=ndjson|csv|db] [--out=file]
+ * [--threads=N] [--userId=N] [--projectId=N]}.
+ *
+ * ndjson and csv run without starting Spring (no web server, no database); db boots a
+ * non-web context and stores the results through the bulk save path. Options of the
+ * form --spring.x=y are handed to that context.
+ */
+public final class AnalyzeCommand {
+
+    private static final String USAGE = "Usage: analyze <directory> [--format=ndjson|csv|db] [--out=file] [--threads=N] [--userId=N] [--projectId=N]";
+
+    private static final String[] INTEGER_OPTIONS = {"threads", "userId", "projectId"};
+
+    private static final int DB_SAVE_BATCH = 5000;  // well above analyzer.bulk.copy-threshold, so saves use COPY
+
+    private static final String CSV_HEADER = "fileName,totalLines,blankLines,commentLines,importCount,variableCount," +
+            "inheritanceCount,encapsulationCount,overrideMethods,overloadedMethods,cyclomaticComplexity," +
+            "complexityPercentage,tryCount,catchCount,finallyCount,vowels,consonants,specialChars,totalCharacters";
+
+    private AnalyzeCommand() {
+    }
+
+    /**
+     * Run the command; returns the process exit code
+     */
+    public static int run(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        Path root = null;
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else if (root == null) {
+                root = Paths.get(arg);
+            }
+        }
+        if (root == null || !Files.isDirectory(root)) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        for (String name : INTEGER_OPTIONS) {
+            if (options.containsKey(name) && !isInteger(options.get(name))) {
+                System.err.println("--" + name + " must be a whole number, got \"" + options.get(name) + "\"");
+                System.err.println(USAGE);
+                return 2;
+            }
+        }
+
+        String format = options.getOrDefault("format", "ndjson");
+        int threads = Integer.parseInt(options.getOrDefault("threads", "0"));
+        SourceTreeAnalyzer analyzer = new SourceTreeAnalyzer(threads);
+        AtomicInteger errors = new AtomicInteger();
+        Consumer<String> onError = message -> {
+            errors.incrementAndGet();
+            System.err.println("Failed: " + message);
+        };
+
+        long start = System.nanoTime();
+        int files;
+        try {
+            switch (format) {
+                case "ndjson":
+                case "csv":
+                    files = writeFile(analyzer, root, format, options.get("out"), onError);
+                    break;
+                case "db":
+                    if (!options.containsKey("userId")) {
+                        System.err.println("--format=db requires --userId");
+                        return 2;
+                    }
+                    files = saveToDatabase(analyzer, root, options, springArgs(args), onError);
+                    break;
+                default:
+                    System.err.println("Unknown format " + format + " (expected ndjson, csv or db)");
+                    return 2;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Analysis failed: " + e.getMessage());
+            return 1;
+        }
+
+        System.err.printf("Analyzed %d files (%d failed) in %d ms%n", files, errors.get(), (System.nanoTime() - start) / 1_000_000);
+        return errors.get() == 0 ? 0 : 1;
+    }
+
+    private static int writeFile(SourceTreeAnalyzer analyzer, Path root, String format, String out,
+                                 Consumer<String> onError) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        AtomicInteger count = new AtomicInteger();
+        try (Writer writer = out != null
+                ? Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            if (format.equals("csv")) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            analyzer.analyze(root, metrics -> {
+                // Format on the worker thread, only the write itself is serialized
+                String line;
+                try {
+                    line = format.equals("csv") ? toCsv(metrics) : objectMapper.writeValueAsString(metrics);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                synchronized (writer) {
+                    try {
+                        writer.write(line);
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                count.incrementAndGet();
+            }, onError);
+        }
+        return count.get();
+    }
+
+    private static int saveToDatabase(SourceTreeAnalyzer analyzer, Path root, Map<String, String> options,
+                                      String[] springArgs, Consumer<String> onError) {
+        Integer userId = Integer.valueOf(options.get("userId"));
+        Integer projectId = options.containsKey("projectId") ? Integer.valueOf(options.get("projectId")) : null;
+
+        List<FileMetrics> analyzed = Collections.synchronizedList(new ArrayList<>());
+        analyzer.analyze(root, analyzed::add, onError);
+
+        SpringApplication application = new SpringApplication(Project1Application.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        try (ConfigurableApplicationContext context = application.run(springArgs)) {
+            AnalyzerService analyzerService = context.getBean(AnalyzerService.class);
+            for (int from = 0; from < analyzed.size(); from += DB_SAVE_BATCH) {
+                analyzerService.saveAll(analyzed.subList(from, Math.min(from + DB_SAVE_BATCH, analyzed.size())), userId, projectId);
+            }
+        }
+        return analyzed.size();
+    }
+
+    private static boolean isInteger(String value) {
+        try {
+            Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Spring properties such as --spring.datasource.url=... are passed through to the context
+     */
+    private static String[] springArgs(String[] args) {
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--spring.")) springArgs.add(arg);
+        }
+        return springArgs.toArray(new String[0]);
+    }
+
+    private static String toCsv(FileMetrics m) {
+        String name = m.getFileName();
+        if (name.indexOf(',') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\n') >= 0) {
+            name = '"' + name.replace("\"", "\"\"") + '"';
+        }
+        return name + ',' + m.getTotalLines() + ',' + m.getBlankLines() + ',' + m.getCommentLines() + ',' +
+                m.getImportCount() + ',' + m.getVariableCount() + ',' + m.getInheritanceCount() + ',' +
+                m.getEncapsulationCount() + ',' + m.getOverrideMethods() + ',' + m.getOverloadedMethods() + ',' +
+                m.getCyclomaticComplexity() + ',' + m.getComplexityPercentage() + ',' + m.getTryCount() + ',' +
+                m.getCatchCount() + ',' + m.getFinallyCount() + ',' + m.getVowels() + ',' + m.getConsonants() + ',' +
+                m.getSpecialChars() + ',' + m.getTotalCharacters();
+    }
+}
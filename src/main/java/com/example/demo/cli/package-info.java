@@ -0,0 +1 @@
+package com.example.demo.cli;
\ No newline at end of file
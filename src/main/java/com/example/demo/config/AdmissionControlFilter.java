@@ -0,0 +1,165 @@
+package com.example.demo.config;
+
+import com.example.demo.service.AnalyzerMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caps concurrent /api requests, globally and per userId, and answers 429 with Retry-After
+ * instead of letting requests queue on the analysis pool and the connection pool.
+ * POST requests (analysis, saves) and GET requests (database reads) have separate global limits.
+ *
+ * Runs as a servlet filter, before DispatcherServlet parses multipart bodies, so a rejected
+ * upload is never buffered. For the same reason the userId is taken from the path, the
+ * X-User-Id header or the query string here. A multipart upload that sends it only as a form
+ * field is checked against the per-user limit by AdmissionControlInterceptor once the body
+ * has been parsed.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Pattern USER_PATH = Pattern.compile("^/api/analyses/user/(\\d+)(?:/|$)");
+    private static final Pattern USER_QUERY = Pattern.compile("(?:^|&)userId=(\\d+)(?:&|$)");
+
+    public static final String USER_HEADER = "X-User-Id";
+
+    // Set on multipart requests whose userId is only known after parsing
+    static final String USER_PENDING_ATTRIBUTE = AdmissionControlFilter.class.getName() + ".userPending";
+
+    @Autowired
+    private AnalyzerMetrics analyzerMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Semaphore analysisPermits;
+    private final Semaphore readPermits;
+    private final int perUserLimit;
+    private final int retryAfterSeconds;
+    // In-flight requests per user; an entry is removed when its count drops to zero
+    private final Map<Integer, AtomicInteger> userInFlight = new ConcurrentHashMap<>();
+
+    public AdmissionControlFilter(@Value("${analyzer.admission.max-concurrent-analyses:32}") int maxAnalyses,
+                                  @Value("${analyzer.admission.max-concurrent-reads:20}") int maxReads,
+                                  @Value("${analyzer.admission.max-concurrent-per-user:4}") int perUserLimit,
+                                  @Value("${analyzer.admission.retry-after-seconds:2}") int retryAfterSeconds) {
+        this.analysisPermits = new Semaphore(maxAnalyses);
+        this.readPermits = new Semaphore(maxReads);
+        this.perUserLimit = perUserLimit;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Long-lived event streams would hold a permit for the whole job
+        return pathOf(request).matches("^/api/jobs/[^/]+/events$");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean analysis = "POST".equals(request.getMethod());
+        Semaphore global = analysis ? analysisPermits : readPermits;
+        if (!global.tryAcquire()) {
+            reject(response, analysis ? "analysis" : "read");
+            return;
+        }
+        try {
+            Integer userId = perUserLimit > 0 ? userIdOf(request) : null;
+            if (userId != null && !acquireUser(userId)) {
+                reject(response, "user");
+                return;
+            }
+            if (userId == null && perUserLimit > 0 && isMultipart(request)) {
+                request.setAttribute(USER_PENDING_ATTRIBUTE, Boolean.TRUE);
+            }
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                if (userId != null) releaseUser(userId);
+            }
+        } finally {
+            global.release();
+        }
+    }
+
+    boolean acquireUser(Integer userId) {
+        boolean[] acquired = new boolean[1];
+        userInFlight.compute(userId, (id, count) -> {
+            if (count == null) count = new AtomicInteger();
+            if (count.get() < perUserLimit) {
+                count.incrementAndGet();
+                acquired[0] = true;
+            }
+            return count.get() == 0 ? null : count;
+        });
+        return acquired[0];
+    }
+
+    void releaseUser(Integer userId) {
+        userInFlight.computeIfPresent(userId, (id, count) -> count.decrementAndGet() == 0 ? null : count);
+    }
+
+    void reject(HttpServletResponse response, String scope) throws IOException {
+        analyzerMetrics.recordRejected(scope);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(Map.of(
+                "error", "Too many concurrent requests (" + scope + " limit), retry later",
+                "retryAfterSeconds", retryAfterSeconds)));
+    }
+
+    /**
+     * userId from the path, the X-User-Id header or the raw query string; request parameters
+     * are not used since reading them would parse a multipart body
+     */
+    private static Integer userIdOf(HttpServletRequest request) {
+        Matcher path = USER_PATH.matcher(pathOf(request));
+        String value = null;
+        if (path.find()) {
+            value = path.group(1);
+        } else if (request.getHeader(USER_HEADER) != null) {
+            value = request.getHeader(USER_HEADER).trim();
+        } else if (request.getQueryString() != null) {
+            Matcher query = USER_QUERY.matcher(request.getQueryString());
+            if (query.find()) value = query.group(1);
+        }
+        return parseUserId(value);
+    }
+
+    static Integer parseUserId(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("multipart/");
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
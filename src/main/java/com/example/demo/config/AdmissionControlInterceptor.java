@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Per-user admission for multipart uploads that send userId as a form field
+ * (/api/analyze-and-save, /api/analyze-batch, ...). The field can only be read once
+ * DispatcherServlet has parsed the body, so AdmissionControlFilter leaves these requests
+ * marked and the user's slot is taken here, from the same per-user counts.
+ */
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String USER_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".userId";
+
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getAttribute(AdmissionControlFilter.USER_PENDING_ATTRIBUTE) == null) return true;
+        request.removeAttribute(AdmissionControlFilter.USER_PENDING_ATTRIBUTE);
+
+        Integer userId = AdmissionControlFilter.parseUserId(request.getParameter("userId"));
+        if (userId == null) return true;
+        if (!admissionControlFilter.acquireUser(userId)) {
+            admissionControlFilter.reject(response, "user");
+            return false;
+        }
+        request.setAttribute(USER_ATTRIBUTE, userId);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object userId = request.getAttribute(USER_ATTRIBUTE);
+        if (userId instanceof Integer) {
+            request.removeAttribute(USER_ATTRIBUTE);
+            admissionControlFilter.releaseUser((Integer) userId);
+        }
+    }
+}
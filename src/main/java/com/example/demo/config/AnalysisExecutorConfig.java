@@ -0,0 +1,73 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded pool for file analysis so batch uploads use every core
+ * without competing with the Tomcat request threads.
+ */
+@Configuration
+public class AnalysisExecutorConfig {
+
+    @Value("${analyzer.executor.threads:0}")
+    private int threads;  // 0 = one per available core
+
+    @Value("${analyzer.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${analyzer.jobs.workers:2}")
+    private int jobWorkers;
+
+    @Value("${analyzer.jobs.queue-capacity:100}")
+    private int jobQueueCapacity;
+
+    @Value("${analyzer.jobs.sse-threads:4}")
+    private int sseThreads;
+
+    @Bean(name = "analysisExecutor", destroyMethod = "shutdown")
+    public ExecutorService analysisExecutor() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        // When the queue is full the submitting thread runs the task itself, which throttles the caller
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("analysis-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Coordinates asynchronous batch jobs; a full queue rejects new jobs instead of queueing without limit
+     */
+    @Bean(name = "jobExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService jobExecutor() {
+        return new ThreadPoolExecutor(jobWorkers, jobWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobQueueCapacity), namedThreads("analysis-job-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Writes job events to SSE clients, so a stalled client only delays other event streams.
+     * Each subscriber has at most one task queued, so the queue is bounded by the open streams.
+     */
+    @Bean(name = "sseExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService sseExecutor() {
+        return new ThreadPoolExecutor(sseThreads, sseThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), namedThreads("analysis-job-sse-"));
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
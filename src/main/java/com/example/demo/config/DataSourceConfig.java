@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+/**
+ * Connection pools: the primary (spring.datasource.*) and, when analyzer.datasource.replica.url
+ * is set, a separately sized replica pool that serves read-only transactions, so report reads
+ * cannot take the connections upload inserts need. Without a replica the primary serves everything.
+ * Routing is per transaction, which relies on spring.jpa.open-in-view=false: an open-in-view
+ * session would keep the first transaction's connection for the rest of the request.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("analyzer.datasource.replica.url")
+    @ConfigurationProperties("analyzer.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${analyzer.datasource.replica.url}") String url,
+                                              @Value("${analyzer.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${analyzer.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The DataSource JPA and JdbcTemplate use
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") Optional<DataSource> replica) {
+        if (replica.isEmpty()) {
+            return primary;
+        }
+        // Lazy proxy: the physical connection is fetched on first use, once the transaction's read-only flag is known
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replica.get()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.AnalysisJob;
+import com.example.demo.service.AnalysisJobService;
+import com.example.demo.service.AnalyzerMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous batch analysis: submit files, then poll the job or stream its results over SSE
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")  // Allow requests from Python app
+public class AnalysisJobController {
+
+    @Autowired
+    private AnalysisJobService analysisJobService;
+
+    @Autowired
+    private AnalyzerMetrics analyzerMetrics;
+
+    @Value("${analyzer.jobs.sse-timeout-ms:1800000}")
+    private long sseTimeoutMs;
+
+    /**
+     * Submit files for analysis; returns the job id immediately
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(
+            @RequestParam("files") MultipartFile[] files,
+            @RequestParam("userId") Integer userId,
+            @RequestParam(value = "projectId", required = false) Integer projectId) {
+
+        try {
+            AnalysisJob job = analysisJobService.submit(analysisJobService.spool(files), userId, projectId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus().name());
+            response.put("totalFiles", files.length);
+            response.put("statusUrl", "/api/jobs/" + job.getId());
+            response.put("eventsUrl", "/api/jobs/" + job.getId() + "/events");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (RejectedExecutionException e) {
+            analyzerMetrics.recordError("jobs");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body(Map.of("error", "Job queue is full, try again later"));
+        } catch (IOException e) {
+            analyzerMetrics.recordError("jobs");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to read file: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Job status plus results; pass resultsFrom/errorsFrom to fetch only what is new since the last poll
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(
+            @PathVariable String jobId,
+            @RequestParam(value = "resultsFrom", defaultValue = "0") int resultsFrom,
+            @RequestParam(value = "errorsFrom", defaultValue = "0") int errorsFrom) {
+        AnalysisJob job = analysisJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown job " + jobId));
+        }
+        return ResponseEntity.ok(job.snapshot(resultsFrom, errorsFrom));
+    }
+
+    /**
+     * Server-Sent Events: "result" and "error" per file as they finish, then "done"
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamJob(@PathVariable String jobId) {
+        AnalysisJob job = analysisJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown job " + jobId));
+        }
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        job.subscribe(emitter);
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -1,26 +1,59 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.CodeAnalysis;
+import com.example.demo.model.CodeAnalysisFingerprint;
+import com.example.demo.model.CodeAnalysisSummary;
 import com.example.demo.model.FileMetrics;
+import com.example.demo.model.IncrementalChange;
+import com.example.demo.model.ProjectSummary;
+import com.example.demo.service.AnalyzerMetrics;
 import com.example.demo.service.AnalyzerService;
+import com.example.demo.service.ProjectSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*")  // Allow requests from Python app
 public class AnalyzerApiController {
 
+    private static final int ARCHIVE_SAVE_BATCH = 2000;  // above analyzer.bulk.copy-threshold, so archives load with COPY
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final Map<String, Function<CodeAnalysisSummary, Object>> SUMMARY_FIELDS = summaryFields();
+
     @Autowired
     private AnalyzerService analyzerService;
 
+    @Autowired
+    private ProjectSummaryService projectSummaryService;
+
+    @Autowired
+    private AnalyzerMetrics analyzerMetrics;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private ExecutorService analysisExecutor;
+
+    @Value("${analyzer.limits.request-budget-ms:60000}")
+    private long requestBudgetMs;  // 0 = batch requests wait for every file
+
     /**
      * Health check endpoint
      */
@@ -44,15 +77,17 @@ public class AnalyzerApiController {
             }
 
             String fileName = file.getOriginalFilename();
-            String content = new String(file.getBytes(), StandardCharsets.UTF_8);
-            
-            FileMetrics metrics = analyzerService.analyze(fileName, content);
+            analyzerMetrics.recordUpload(file.getSize());
+
+            FileMetrics metrics = analyzerService.analyze(fileName, file);
             
             return ResponseEntity.ok(metrics);
         } catch (IOException e) {
+            analyzerMetrics.recordError("analyze");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to read file: " + e.getMessage()));
         } catch (Exception e) {
+            analyzerMetrics.recordError("analyze");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Analysis failed: " + e.getMessage()));
         }
@@ -72,13 +107,14 @@ public class AnalyzerApiController {
             }
 
             String fileName = file.getOriginalFilename();
-            String content = new String(file.getBytes(), StandardCharsets.UTF_8);
-            
-            CodeAnalysis analysis = analyzerService.analyzeAndSave(fileName, content, userId, projectId);
+            analyzerMetrics.recordUpload(file.getSize());
+
+            CodeAnalysis analysis = analyzerService.analyzeAndSave(fileName, file, userId, projectId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "File analyzed and saved successfully");
+            response.put("message", analyzerService.isWriteBehindEnabled()
+                    ? "File analyzed and queued for saving" : "File analyzed and saved successfully");
             response.put("analysisId", analysis.getId());
             response.put("fileName", analysis.getFileName());
             response.put("userId", analysis.getUserId());
@@ -93,9 +129,11 @@ public class AnalyzerApiController {
             
             return ResponseEntity.ok(response);
         } catch (IOException e) {
+            analyzerMetrics.recordError("analyze-and-save");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to read file: " + e.getMessage()));
         } catch (Exception e) {
+            analyzerMetrics.recordError("analyze-and-save");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Analysis failed: " + e.getMessage()));
         }
@@ -108,31 +146,69 @@ public class AnalyzerApiController {
     public ResponseEntity<?> analyzeBatchFiles(
             @RequestParam("files") MultipartFile[] files,
             @RequestParam("userId") Integer userId,
-            @RequestParam(value = "projectId", required = false) Integer projectId) {
+            @RequestParam(value = "projectId", required = false) Integer projectId,
+            @RequestParam(value = "incremental", defaultValue = "false") boolean incremental,
+            @RequestParam(value = "layout", defaultValue = "rows") String layout) {
+
+        if (!"rows".equals(layout) && !"columnar".equals(layout)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown layout " + layout + " (expected rows or columnar)"));
+        }
+        if (incremental) {
+            if ("columnar".equals(layout)) {
+                // Skipped files have no metrics to fill the columns with
+                return ResponseEntity.badRequest().body(Map.of("error", "Incremental mode only supports layout=rows"));
+            }
+            if (projectId == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Incremental mode requires a projectId"));
+            }
+            return analyzeBatchIncremental(files, userId, projectId);
+        }
         
         List<Map<String, Object>> results = new ArrayList<>();
         List<String> errors = new ArrayList<>();
-        
+
+        // Started before submitting: with caller-runs backpressure this thread may analyze files itself
+        long deadline = budgetDeadline();
+
+        // Fan the analysis out over the pool, then collect in upload order
+        List<Future<FileMetrics>> futures = new ArrayList<>(files.length);
         for (MultipartFile file : files) {
+            futures.add(submit(() -> analyzeOne(file), deadline));
+        }
+
+        List<FileMetrics> analyzed = new ArrayList<>(files.length);
+        for (int i = 0; i < files.length; i++) {
             try {
-                if (file.isEmpty()) {
-                    errors.add(file.getOriginalFilename() + ": File is empty");
-                    continue;
-                }
+                analyzed.add(await(futures.get(i), deadline));
+            } catch (ExecutionException e) {
+                analyzerMetrics.recordError("analyze-batch");
+                errors.add(files[i].getOriginalFilename() + ": " + e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                futures.get(i).cancel(true);
+                analyzerMetrics.recordError("analyze-batch");
+                errors.add(files[i].getOriginalFilename() + ": Analysis time budget exceeded");
+            } catch (InterruptedException e) {
+                analyzerMetrics.recordError("analyze-batch");
+                Thread.currentThread().interrupt();
+                errors.add(files[i].getOriginalFilename() + ": Interrupted");
+            }
+        }
 
-                String fileName = file.getOriginalFilename();
-                String content = new String(file.getBytes(), StandardCharsets.UTF_8);
-                
-                CodeAnalysis analysis = analyzerService.analyzeAndSave(fileName, content, userId, projectId);
-                
+        // Persist every successful file in one batched transaction
+        List<CodeAnalysis> saved = List.of();
+        try {
+            saved = analyzerService.saveAll(analyzed, userId, projectId);
+            for (CodeAnalysis analysis : saved) {
                 Map<String, Object> result = new HashMap<>();
                 result.put("fileName", analysis.getFileName());
                 result.put("analysisId", analysis.getId());
                 result.put("success", true);
                 results.add(result);
-                
-            } catch (Exception e) {
-                errors.add(file.getOriginalFilename() + ": " + e.getMessage());
+            }
+        } catch (Exception e) {
+            analyzerMetrics.recordError("analyze-batch");
+            for (FileMetrics metrics : analyzed) {
+                errors.add(metrics.getFileName() + ": " + e.getMessage());
             }
         }
         
@@ -140,12 +216,279 @@ public class AnalyzerApiController {
         response.put("totalFiles", files.length);
         response.put("successCount", results.size());
         response.put("errorCount", errors.size());
-        response.put("results", results);
+        if ("columnar".equals(layout)) {
+            response.put("columns", toColumns(saved.isEmpty() ? List.of() : analyzed, saved));
+        } else {
+            response.put("results", results);
+        }
         response.put("errors", errors);
         
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Columnar batch layout: one array per field, index i describing the i-th saved file.
+     * Much smaller than one object per file and parses straight into numpy/pandas columns.
+     */
+    private static Map<String, Object> toColumns(List<FileMetrics> metrics, List<CodeAnalysis> saved) {
+        int n = metrics.size();
+        String[] fileNames = new String[n];
+        long[] analysisIds = new long[n];
+        int[] totalLines = new int[n], blankLines = new int[n], commentLines = new int[n], importCount = new int[n],
+                variableCount = new int[n], inheritanceCount = new int[n], encapsulationCount = new int[n],
+                overrideMethods = new int[n], overloadedMethods = new int[n], cyclomaticComplexity = new int[n],
+                tryCount = new int[n], catchCount = new int[n], finallyCount = new int[n], vowels = new int[n],
+                consonants = new int[n], specialChars = new int[n], totalCharacters = new int[n];
+        double[] complexityPercentage = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            FileMetrics m = metrics.get(i);
+            fileNames[i] = m.getFileName();
+            Long id = saved.get(i).getId();
+            analysisIds[i] = id != null ? id : 0L;
+            totalLines[i] = m.getTotalLines();
+            blankLines[i] = m.getBlankLines();
+            commentLines[i] = m.getCommentLines();
+            importCount[i] = m.getImportCount();
+            variableCount[i] = m.getVariableCount();
+            inheritanceCount[i] = m.getInheritanceCount();
+            encapsulationCount[i] = m.getEncapsulationCount();
+            overrideMethods[i] = m.getOverrideMethods();
+            overloadedMethods[i] = m.getOverloadedMethods();
+            cyclomaticComplexity[i] = m.getCyclomaticComplexity();
+            complexityPercentage[i] = m.getComplexityPercentage();
+            tryCount[i] = m.getTryCount();
+            catchCount[i] = m.getCatchCount();
+            finallyCount[i] = m.getFinallyCount();
+            vowels[i] = m.getVowels();
+            consonants[i] = m.getConsonants();
+            specialChars[i] = m.getSpecialChars();
+            totalCharacters[i] = m.getTotalCharacters();
+        }
+
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("fileName", fileNames);
+        columns.put("analysisId", analysisIds);
+        columns.put("totalLines", totalLines);
+        columns.put("blankLines", blankLines);
+        columns.put("commentLines", commentLines);
+        columns.put("importCount", importCount);
+        columns.put("variableCount", variableCount);
+        columns.put("inheritanceCount", inheritanceCount);
+        columns.put("encapsulationCount", encapsulationCount);
+        columns.put("overrideMethods", overrideMethods);
+        columns.put("overloadedMethods", overloadedMethods);
+        columns.put("cyclomaticComplexity", cyclomaticComplexity);
+        columns.put("complexityPercentage", complexityPercentage);
+        columns.put("tryCount", tryCount);
+        columns.put("catchCount", catchCount);
+        columns.put("finallyCount", finallyCount);
+        columns.put("vowels", vowels);
+        columns.put("consonants", consonants);
+        columns.put("specialChars", specialChars);
+        columns.put("totalCharacters", totalCharacters);
+        return columns;
+    }
+
+    /**
+     * Re-upload of a project: unchanged files (same name and content hash) are skipped,
+     * changed files update their existing row and files missing from the upload are reported
+     */
+    private ResponseEntity<?> analyzeBatchIncremental(MultipartFile[] files, Integer userId, Integer projectId) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        Map<String, CodeAnalysisFingerprint> fingerprints = analyzerService.getFingerprints(projectId);
+
+        long deadline = budgetDeadline();
+        List<Future<IncrementalChange>> futures = new ArrayList<>(files.length);
+        for (MultipartFile file : files) {
+            CodeAnalysisFingerprint existing = fingerprints.get(file.getOriginalFilename());
+            futures.add(submit(() -> {
+                if (file.isEmpty()) {
+                    throw new IllegalArgumentException("File is empty");
+                }
+                analyzerMetrics.recordUpload(file.getSize());
+                return analyzerService.diff(file.getOriginalFilename(), file, existing);
+            }, deadline));
+        }
+
+        List<IncrementalChange> changes = new ArrayList<>(files.length);
+        Set<String> uploaded = new HashSet<>();
+        for (int i = 0; i < files.length; i++) {
+            uploaded.add(files[i].getOriginalFilename());
+            try {
+                changes.add(await(futures.get(i), deadline));
+            } catch (ExecutionException e) {
+                analyzerMetrics.recordError("analyze-batch");
+                errors.add(files[i].getOriginalFilename() + ": " + e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                futures.get(i).cancel(true);
+                analyzerMetrics.recordError("analyze-batch");
+                errors.add(files[i].getOriginalFilename() + ": Analysis time budget exceeded");
+            } catch (InterruptedException e) {
+                analyzerMetrics.recordError("analyze-batch");
+                Thread.currentThread().interrupt();
+                errors.add(files[i].getOriginalFilename() + ": Interrupted");
+            }
+        }
+
+        int skipped = 0, changed = 0, added = 0;
+        try {
+            Iterator<CodeAnalysis> saved = analyzerService.applyChanges(changes, userId, projectId).iterator();
+            for (IncrementalChange change : changes) {
+                Map<String, Object> result = new HashMap<>();
+                result.put("fileName", change.getFileName());
+                result.put("status", change.getStatus().name().toLowerCase());
+                switch (change.getStatus()) {
+                    case SKIPPED:
+                        skipped++;
+                        result.put("analysisId", change.getExistingId());
+                        break;
+                    case CHANGED:
+                        changed++;
+                        result.put("analysisId", saved.next().getId());
+                        break;
+                    default:
+                        added++;
+                        result.put("analysisId", saved.next().getId());
+                        break;
+                }
+                result.put("success", true);
+                results.add(result);
+            }
+        } catch (Exception e) {
+            analyzerMetrics.recordError("analyze-batch");
+            for (IncrementalChange change : changes) {
+                errors.add(change.getFileName() + ": " + e.getMessage());
+            }
+        }
+
+        List<String> deleted = new ArrayList<>();
+        for (String fileName : fingerprints.keySet()) {
+            if (!uploaded.contains(fileName)) deleted.add(fileName);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalFiles", files.length);
+        response.put("successCount", results.size());
+        response.put("errorCount", errors.size());
+        response.put("skippedCount", skipped);
+        response.put("changedCount", changed);
+        response.put("addedCount", added);
+        response.put("deletedCount", deleted.size());
+        response.put("deleted", deleted);
+        response.put("results", results);
+        response.put("errors", errors);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Analyze every .java file of a .zip, .tar or .tar.gz sent as the raw request body.
+     * Entries are analyzed while decompressing, so the archive is never buffered or written to disk.
+     * With a userId the results are also saved, in batches.
+     */
+    @PostMapping("/analyze-archive")
+    public ResponseEntity<?> analyzeArchive(
+            InputStream body,
+            @RequestParam(value = "userId", required = false) Integer userId,
+            @RequestParam(value = "projectId", required = false) Integer projectId) {
+
+        List<Object> results = new ArrayList<>();
+        List<FileMetrics> pending = new ArrayList<>(ARCHIVE_SAVE_BATCH);
+
+        try {
+            analyzerService.analyzeArchive(body, metrics -> {
+                if (userId == null) {
+                    results.add(metrics);
+                    return;
+                }
+                pending.add(metrics);
+                if (pending.size() == ARCHIVE_SAVE_BATCH) {
+                    saveArchiveBatch(pending, userId, projectId, results);
+                }
+            });
+            if (!pending.isEmpty()) {
+                saveArchiveBatch(pending, userId, projectId, results);
+            }
+        } catch (IOException e) {
+            analyzerMetrics.recordError("analyze-archive");
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Failed to read archive: " + e.getMessage(),
+                                 "processedFiles", results.size()));
+        } catch (Exception e) {
+            analyzerMetrics.recordError("analyze-archive");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Analysis failed: " + e.getMessage(),
+                                 "processedFiles", results.size()));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalFiles", results.size());
+        response.put("saved", userId != null);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
+    private void saveArchiveBatch(List<FileMetrics> pending, Integer userId, Integer projectId, List<Object> results) {
+        for (CodeAnalysis analysis : analyzerService.saveAll(pending, userId, projectId)) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("fileName", analysis.getFileName());
+            result.put("analysisId", analysis.getId());
+            result.put("success", true);
+            results.add(result);
+        }
+        pending.clear();
+    }
+
+    private long budgetDeadline() {
+        return requestBudgetMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestBudgetMs) : 0;
+    }
+
+    /**
+     * Submit a batch file unless the budget is already spent (the caller may have been
+     * running files itself under backpressure); a skipped file gets a cancelled future
+     */
+    private <T> Future<T> submit(Callable<T> task, long deadline) {
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            FutureTask<T> skipped = new FutureTask<>(task);
+            skipped.cancel(false);
+            return skipped;
+        }
+        return analysisExecutor.submit(task);
+    }
+
+    /**
+     * Wait for a batch file within the request budget; cancelling the future interrupts its scan
+     */
+    private static <T> T await(Future<T> future, long deadline)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        if (future.isCancelled()) throw new TimeoutException();
+        if (deadline == 0) return future.get();
+        return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Analyze one file of a batch; failures surface as the future's exception
+     */
+    private FileMetrics analyzeOne(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+
+        analyzerMetrics.recordUpload(file.getSize());
+        return analyzerService.analyze(file.getOriginalFilename(), file);
+    }
+
+    /**
+     * Content-hash and query cache statistics
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(analyzerService.getCacheStats());
+    }
+
     /**
      * Get analysis results for a user
      */
@@ -155,6 +498,7 @@ public class AnalyzerApiController {
             List<CodeAnalysis> analyses = analyzerService.getAnalysesByUser(userId);
             return ResponseEntity.ok(analyses);
         } catch (Exception e) {
+            analyzerMetrics.recordError("analyses/user/{userId}");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
@@ -169,8 +513,188 @@ public class AnalyzerApiController {
             List<CodeAnalysis> analyses = analyzerService.getAnalysesByProject(projectId);
             return ResponseEntity.ok(analyses);
         } catch (Exception e) {
+            analyzerMetrics.recordError("analyses/project/{projectId}");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get analysis results for a user within one project
+     */
+    @GetMapping("/analyses/user/{userId}/project/{projectId}")
+    public ResponseEntity<?> getAnalysesByUserAndProject(@PathVariable Integer userId, @PathVariable Integer projectId) {
+        try {
+            List<CodeAnalysis> analyses = analyzerService.getAnalysesByUserAndProject(userId, projectId);
+            return ResponseEntity.ok(analyses);
+        } catch (Exception e) {
+            analyzerMetrics.recordError("analyses/user/{userId}/project/{projectId}");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Project totals from the incrementally maintained summary table
+     */
+    @GetMapping("/projects/{projectId}/summary")
+    public ResponseEntity<?> getProjectSummary(@PathVariable Integer projectId) {
+        try {
+            Optional<ProjectSummary> summary = projectSummaryService.getSummary(projectId);
+            if (summary.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "No analyses recorded for project " + projectId));
+            }
+            return ResponseEntity.ok(toSummaryResponse(summary.get()));
+        } catch (Exception e) {
+            analyzerMetrics.recordError("projects/{projectId}/summary");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
     }
+
+    /**
+     * Recompute a project's summary from all of its stored analyses
+     */
+    @PostMapping("/projects/{projectId}/summary/rebuild")
+    public ResponseEntity<?> rebuildProjectSummary(@PathVariable Integer projectId) {
+        try {
+            Optional<ProjectSummary> summary = projectSummaryService.rebuild(projectId);
+            if (summary.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "No analyses recorded for project " + projectId));
+            }
+            return ResponseEntity.ok(toSummaryResponse(summary.get()));
+        } catch (Exception e) {
+            analyzerMetrics.recordError("projects/{projectId}/summary/rebuild");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static Map<String, Object> toSummaryResponse(ProjectSummary summary) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("projectId", summary.getProjectId());
+        response.put("fileCount", summary.getFileCount());
+        response.put("totalLines", summary.getTotalLines());
+        response.put("averageCyclomaticComplexity", summary.getAverageCyclomatic());
+        response.put("maxCyclomaticComplexity", summary.getMaxCyclomatic());
+        response.put("tryCount", summary.getTryCount());
+        response.put("catchCount", summary.getCatchCount());
+        response.put("finallyCount", summary.getFinallyCount());
+        response.put("updatedAt", summary.getUpdatedAt());
+        return response;
+    }
+
+    /**
+     * Keyset page of a user's analyses: pass the returned nextCursor as "after" to continue
+     */
+    @GetMapping("/analyses/user/{userId}/page")
+    public ResponseEntity<?> getAnalysisPageByUser(
+            @PathVariable Integer userId,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        try {
+            int pageSize = clampPageSize(limit);
+            return ResponseEntity.ok(toPage(analyzerService.getAnalysisPageByUser(userId, after, pageSize), pageSize, fields));
+        } catch (IllegalArgumentException e) {
+            analyzerMetrics.recordError("analyses/user/{userId}/page");
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            analyzerMetrics.recordError("analyses/user/{userId}/page");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Keyset page of a project's analyses: pass the returned nextCursor as "after" to continue
+     */
+    @GetMapping("/analyses/project/{projectId}/page")
+    public ResponseEntity<?> getAnalysisPageByProject(
+            @PathVariable Integer projectId,
+            @RequestParam(value = "after", defaultValue = "0") long after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestParam(value = "fields", required = false) String fields) {
+        try {
+            int pageSize = clampPageSize(limit);
+            return ResponseEntity.ok(toPage(analyzerService.getAnalysisPageByProject(projectId, after, pageSize), pageSize, fields));
+        } catch (IllegalArgumentException e) {
+            analyzerMetrics.recordError("analyses/project/{projectId}/page");
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            analyzerMetrics.recordError("analyses/project/{projectId}/page");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Build a page response, keeping only the requested fields (comma separated) when given
+     */
+    private static Map<String, Object> toPage(List<CodeAnalysisSummary> rows, int pageSize, String fields) {
+        Collection<String> selected = SUMMARY_FIELDS.keySet();
+        if (fields != null && !fields.isBlank()) {
+            selected = new LinkedHashSet<>();
+            selected.add("id");
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (!SUMMARY_FIELDS.containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown field: " + name);
+                }
+                selected.add(name);
+            }
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(rows.size());
+        for (CodeAnalysisSummary row : rows) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String name : selected) {
+                item.put(name, SUMMARY_FIELDS.get(name).apply(row));
+            }
+            items.add(item);
+        }
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", items);
+        page.put("limit", pageSize);
+        // A short page means there is nothing after it
+        page.put("nextCursor", rows.size() == pageSize ? rows.get(rows.size() - 1).getId() : null);
+        return page;
+    }
+
+    private static Map<String, Function<CodeAnalysisSummary, Object>> summaryFields() {
+        Map<String, Function<CodeAnalysisSummary, Object>> fields = new LinkedHashMap<>();
+        fields.put("id", CodeAnalysisSummary::getId);
+        fields.put("userId", CodeAnalysisSummary::getUserId);
+        fields.put("projectId", CodeAnalysisSummary::getProjectId);
+        fields.put("fileName", CodeAnalysisSummary::getFileName);
+        fields.put("fileType", CodeAnalysisSummary::getFileType);
+        fields.put("totalLines", CodeAnalysisSummary::getTotalLines);
+        fields.put("blankLines", CodeAnalysisSummary::getBlankLines);
+        fields.put("commentLines", CodeAnalysisSummary::getCommentLines);
+        fields.put("importCount", CodeAnalysisSummary::getImportCount);
+        fields.put("variableCount", CodeAnalysisSummary::getVariableCount);
+        fields.put("inheritanceCount", CodeAnalysisSummary::getInheritanceCount);
+        fields.put("encapsulationCount", CodeAnalysisSummary::getEncapsulationCount);
+        fields.put("overrideMethods", CodeAnalysisSummary::getOverrideMethods);
+        fields.put("overloadedMethods", CodeAnalysisSummary::getOverloadedMethods);
+        fields.put("cyclomaticComplexity", CodeAnalysisSummary::getCyclomaticComplexity);
+        fields.put("complexityPercentage", CodeAnalysisSummary::getComplexityPercentage);
+        fields.put("tryCount", CodeAnalysisSummary::getTryCount);
+        fields.put("catchCount", CodeAnalysisSummary::getCatchCount);
+        fields.put("finallyCount", CodeAnalysisSummary::getFinallyCount);
+        fields.put("vowels", CodeAnalysisSummary::getVowels);
+        fields.put("consonants", CodeAnalysisSummary::getConsonants);
+        fields.put("specialChars", CodeAnalysisSummary::getSpecialChars);
+        fields.put("totalCharacters", CodeAnalysisSummary::getTotalCharacters);
+        fields.put("analyzedAt", CodeAnalysisSummary::getAnalyzedAt);
+        fields.put("createdAt", CodeAnalysisSummary::getCreatedAt);
+        return fields;
+    }
 }
@@ -1,7 +1,7 @@
 package com.example.demo.controller;
 
-import com.example.demo.model.FileMetrics;
-import com.example.demo.service.AnalyzerService;
+import com.example.demo.service.AnalysisJob;
+import com.example.demo.service.AnalysisJobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -9,8 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller for Thymeleaf-based file upload UI (Optional)
@@ -20,7 +19,7 @@ import java.util.List;
 public class MainController {
 
     @Autowired
-    private AnalyzerService analyzerService;
+    private AnalysisJobService analysisJobService;
 
     // FRONT PAGE - Redirect to Python app for authentication
     @GetMapping("/")
@@ -28,7 +27,7 @@ public class MainController {
         return "redirect:http://127.0.0.1:9000/login";
     }
 
-    // FILE UPLOAD
+    // FILE UPLOAD - analyzed in the background; result.html streams rows in from the job's event stream
     @PostMapping("/upload")
     public String uploadFiles(@RequestParam("files") MultipartFile[] files, Model model) throws IOException {
 
@@ -37,18 +36,15 @@ public class MainController {
             return "upload";
         }
 
-        List<FileMetrics> results = new ArrayList<>();
-
-        for (MultipartFile file : files) {
-            if (!file.isEmpty()) {
-                String content = new String(file.getBytes());
-                FileMetrics result = analyzerService.analyze(file.getOriginalFilename(), content);
-                results.add(result);
-            }
+        try {
+            AnalysisJob job = analysisJobService.submit(analysisJobService.spool(files), null, null);
+            model.addAttribute("jobId", job.getId());
+            model.addAttribute("totalFiles", files.length);
+        } catch (RejectedExecutionException e) {
+            model.addAttribute("message", "The analyzer is busy, please try again in a minute");
+            return "upload";
         }
 
-        model.addAttribute("results", results);
-
         return "result";
     }
 
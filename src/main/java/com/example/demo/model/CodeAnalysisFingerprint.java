@@ -0,0 +1,11 @@
+package com.example.demo.model;
+
+/**
+ * Minimal projection used to decide whether a re-uploaded file changed
+ */
+public interface CodeAnalysisFingerprint {
+
+    Long getId();
+    String getFileName();
+    String getContentHash();
+}
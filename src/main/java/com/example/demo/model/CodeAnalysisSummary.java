@@ -0,0 +1,35 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight read projection of CodeAnalysis that leaves out the analysis_data JSON
+ */
+public interface CodeAnalysisSummary {
+
+    Long getId();
+    Integer getUserId();
+    Integer getProjectId();
+    String getFileName();
+    String getFileType();
+    Integer getTotalLines();
+    Integer getBlankLines();
+    Integer getCommentLines();
+    Integer getImportCount();
+    Integer getVariableCount();
+    Integer getInheritanceCount();
+    Integer getEncapsulationCount();
+    Integer getOverrideMethods();
+    Integer getOverloadedMethods();
+    Integer getCyclomaticComplexity();
+    Double getComplexityPercentage();
+    Integer getTryCount();
+    Integer getCatchCount();
+    Integer getFinallyCount();
+    Integer getVowels();
+    Integer getConsonants();
+    Integer getSpecialChars();
+    Integer getTotalCharacters();
+    LocalDateTime getAnalyzedAt();
+    LocalDateTime getCreatedAt();
+}
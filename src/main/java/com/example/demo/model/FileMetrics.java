@@ -4,6 +4,12 @@ package com.example.demo.model;
 
 public class FileMetrics {
 
+    /**
+     * COMPLETE: every rule ran on every line. DEGRADED: a line or line-count limit was hit and the
+     * rest was only counted, not matched. PARTIAL: the time budget ran out and only a prefix was scanned.
+     */
+    public enum Status { COMPLETE, DEGRADED, PARTIAL }
+
     private String fileName;
     private int totalLines;
     private int blankLines;
@@ -18,6 +24,8 @@ public class FileMetrics {
     private double complexityPercentage;
     private int tryCount, catchCount, finallyCount;
     private int vowels, consonants, specialChars, totalCharacters;
+    private Status status = Status.COMPLETE;
+    private String contentHash;  // AnalysisCache key of the analyzed bytes, if known; stored in content_hash
 
     public FileMetrics(String fileName, int totalLines, int blankLines, int commentLines, int importCount,
                        int variableCount, int inheritanceCount, int encapsulationCount,
@@ -65,6 +73,32 @@ public class FileMetrics {
     public int getConsonants() { return consonants; }
     public int getSpecialChars() { return specialChars; }
     public int getTotalCharacters() { return totalCharacters; }
+    public Status getStatus() { return status; }
+    public String getContentHash() { return contentHash; }
+
+
+    public FileMetrics withFileName(String fileName) {
+        FileMetrics copy = new FileMetrics(fileName, totalLines, blankLines, commentLines, importCount,
+                variableCount, inheritanceCount, encapsulationCount,
+                overrideMethods, overloadedMethods, cyclomaticComplexity,
+                complexityPercentage, tryCount, catchCount, finallyCount,
+                vowels, consonants, specialChars, totalCharacters);
+        copy.status = status;
+        copy.contentHash = contentHash;
+        return copy;
+    }
+
+    public FileMetrics withStatus(Status status) {
+        FileMetrics copy = withFileName(fileName);
+        copy.status = status;
+        return copy;
+    }
+
+    public FileMetrics withContentHash(String contentHash) {
+        FileMetrics copy = withFileName(fileName);
+        copy.contentHash = contentHash;
+        return copy;
+    }
 
 }
 
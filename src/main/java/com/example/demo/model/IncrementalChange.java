@@ -0,0 +1,29 @@
+package com.example.demo.model;
+
+/**
+ * Outcome of comparing one uploaded file against the project's stored analysis
+ */
+public class IncrementalChange {
+
+    public enum Status { ADDED, CHANGED, SKIPPED }
+
+    private final String fileName;
+    private final String contentHash;
+    private final FileMetrics metrics;  // null when skipped
+    private final Long existingId;      // null when added
+    private final Status status;
+
+    public IncrementalChange(String fileName, String contentHash, FileMetrics metrics, Long existingId, Status status) {
+        this.fileName = fileName;
+        this.contentHash = contentHash;
+        this.metrics = metrics;
+        this.existingId = existingId;
+        this.status = status;
+    }
+
+    public String getFileName() { return fileName; }
+    public String getContentHash() { return contentHash; }
+    public FileMetrics getMetrics() { return metrics; }
+    public Long getExistingId() { return existingId; }
+    public Status getStatus() { return status; }
+}
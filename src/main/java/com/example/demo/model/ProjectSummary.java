@@ -0,0 +1,74 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Running per-project totals, updated on every save so the dashboard never scans code_analysis
+ */
+@Entity
+@Table(name = "project_summary")
+public class ProjectSummary {
+
+    @Id
+    @Column(name = "project_id")
+    private Integer projectId;
+
+    @Column(name = "file_count", nullable = false)
+    private Long fileCount = 0L;
+
+    @Column(name = "total_lines", nullable = false)
+    private Long totalLines = 0L;
+
+    @Column(name = "cyclomatic_sum", nullable = false)
+    private Long cyclomaticSum = 0L;
+
+    @Column(name = "max_cyclomatic", nullable = false)
+    private Integer maxCyclomatic = 0;
+
+    @Column(name = "try_count", nullable = false)
+    private Long tryCount = 0L;
+
+    @Column(name = "catch_count", nullable = false)
+    private Long catchCount = 0L;
+
+    @Column(name = "finally_count", nullable = false)
+    private Long finallyCount = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public ProjectSummary() {}
+
+    public double getAverageCyclomatic() {
+        return fileCount == 0 ? 0.0 : (double) cyclomaticSum / fileCount;
+    }
+
+    // Getters and Setters
+    public Integer getProjectId() { return projectId; }
+    public void setProjectId(Integer projectId) { this.projectId = projectId; }
+
+    public Long getFileCount() { return fileCount; }
+    public void setFileCount(Long fileCount) { this.fileCount = fileCount; }
+
+    public Long getTotalLines() { return totalLines; }
+    public void setTotalLines(Long totalLines) { this.totalLines = totalLines; }
+
+    public Long getCyclomaticSum() { return cyclomaticSum; }
+    public void setCyclomaticSum(Long cyclomaticSum) { this.cyclomaticSum = cyclomaticSum; }
+
+    public Integer getMaxCyclomatic() { return maxCyclomatic; }
+    public void setMaxCyclomatic(Integer maxCyclomatic) { this.maxCyclomatic = maxCyclomatic; }
+
+    public Long getTryCount() { return tryCount; }
+    public void setTryCount(Long tryCount) { this.tryCount = tryCount; }
+
+    public Long getCatchCount() { return catchCount; }
+    public void setCatchCount(Long catchCount) { this.catchCount = catchCount; }
+
+    public Long getFinallyCount() { return finallyCount; }
+    public void setFinallyCount(Long finallyCount) { this.finallyCount = finallyCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
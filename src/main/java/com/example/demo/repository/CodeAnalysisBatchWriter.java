@@ -0,0 +1,194 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.CodeAnalysis;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC writes of code_analysis rows whose ids were reserved up front,
+ * for write paths that must know the id before the row is stored:
+ * batched INSERTs, and PostgreSQL COPY for bulk loads.
+ */
+@Repository
+public class CodeAnalysisBatchWriter {
+
+    private static final String COLUMNS = "id, user_id, project_id, file_name, file_type, " +
+            "total_lines, blank_lines, comment_lines, import_count, variable_count, inheritance_count, " +
+            "encapsulation_count, override_methods, overloaded_methods, cyclomatic_complexity, complexity_percentage, " +
+            "try_count, catch_count, finally_count, vowels, consonants, special_chars, total_characters, " +
+            "analysis_data, content_hash, analyzed_at, created_at";
+
+    private static final String INSERT_SQL = "INSERT INTO code_analysis (" + COLUMNS + ") " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?)";
+
+    private static final String COPY_SQL = "COPY code_analysis (" + COLUMNS + ") FROM STDIN";
+
+    private static final int COPY_CHUNK_CHARS = 64 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long nextId;
+    private long lastId = -1;  // end of the reserved block, inclusive
+
+    /**
+     * Reserve an id from the same sequence Hibernate uses.
+     * Like Hibernate's pooled optimizer, a nextval of n owns the block (n - allocationSize, n].
+     */
+    public synchronized long reserveId() {
+        if (nextId > lastId) {
+            long high = jdbcTemplate.queryForObject("SELECT nextval('code_analysis_id_seq')", Long.class);
+            nextId = Math.max(1, high - CodeAnalysis.ID_ALLOCATION_SIZE + 1);
+            lastId = high;
+        }
+        return nextId++;
+    }
+
+    /**
+     * Reserve ids for a whole bulk load, one sequence call per block
+     */
+    public synchronized void assignIds(List<CodeAnalysis> rows) {
+        int i = 0;
+        // Use up the current block first
+        while (i < rows.size() && nextId <= lastId) {
+            rows.get(i++).setId(nextId++);
+        }
+        if (i == rows.size()) return;
+
+        int blocks = (rows.size() - i + CodeAnalysis.ID_ALLOCATION_SIZE - 1) / CodeAnalysis.ID_ALLOCATION_SIZE;
+        List<Long> highs = jdbcTemplate.queryForList(
+                "SELECT nextval('code_analysis_id_seq') FROM generate_series(1, ?)", Long.class, blocks);
+        for (long high : highs) {
+            nextId = Math.max(1, high - CodeAnalysis.ID_ALLOCATION_SIZE + 1);
+            lastId = high;
+            while (i < rows.size() && nextId <= lastId) {
+                rows.get(i++).setId(nextId++);
+            }
+        }
+    }
+
+    /**
+     * Insert rows that already carry reserved ids, as one JDBC batch
+     */
+    public void insertAll(List<CodeAnalysis> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (CodeAnalysis row : rows) {
+            args.add(new Object[] {
+                    row.getId(), row.getUserId(), row.getProjectId(), row.getFileName(), row.getFileType(),
+                    row.getTotalLines(), row.getBlankLines(), row.getCommentLines(), row.getImportCount(),
+                    row.getVariableCount(), row.getInheritanceCount(), row.getEncapsulationCount(),
+                    row.getOverrideMethods(), row.getOverloadedMethods(), row.getCyclomaticComplexity(),
+                    row.getComplexityPercentage(), row.getTryCount(), row.getCatchCount(), row.getFinallyCount(),
+                    row.getVowels(), row.getConsonants(), row.getSpecialChars(), row.getTotalCharacters(),
+                    row.getAnalysisData(), row.getContentHash(), timestamp(row.getAnalyzedAt()), timestamp(row.getCreatedAt())
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * Stream rows that already carry reserved ids through COPY FROM STDIN (text format).
+     * Runs on the connection of the current transaction, if any.
+     */
+    public long copyAll(List<CodeAnalysis> rows) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder chunk = new StringBuilder(COPY_CHUNK_CHARS + 4096);
+                for (CodeAnalysis row : rows) {
+                    appendRow(chunk, row);
+                    if (chunk.length() >= COPY_CHUNK_CHARS) {
+                        writeChunk(copy, chunk);
+                    }
+                }
+                writeChunk(copy, chunk);
+                return copy.endCopy();
+            } finally {
+                if (copy.isActive()) copy.cancelCopy();
+            }
+        });
+    }
+
+    private static void writeChunk(CopyIn copy, StringBuilder chunk) throws SQLException {
+        if (chunk.length() == 0) return;
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static void appendRow(StringBuilder out, CodeAnalysis row) {
+        out.append(row.getId());
+        field(out, row.getUserId());
+        field(out, row.getProjectId());
+        text(out, row.getFileName());
+        text(out, row.getFileType());
+        field(out, row.getTotalLines());
+        field(out, row.getBlankLines());
+        field(out, row.getCommentLines());
+        field(out, row.getImportCount());
+        field(out, row.getVariableCount());
+        field(out, row.getInheritanceCount());
+        field(out, row.getEncapsulationCount());
+        field(out, row.getOverrideMethods());
+        field(out, row.getOverloadedMethods());
+        field(out, row.getCyclomaticComplexity());
+        field(out, row.getComplexityPercentage());
+        field(out, row.getTryCount());
+        field(out, row.getCatchCount());
+        field(out, row.getFinallyCount());
+        field(out, row.getVowels());
+        field(out, row.getConsonants());
+        field(out, row.getSpecialChars());
+        field(out, row.getTotalCharacters());
+        text(out, row.getAnalysisData());
+        text(out, row.getContentHash());
+        field(out, row.getAnalyzedAt());  // ISO-8601, which PostgreSQL accepts for timestamp
+        field(out, row.getCreatedAt());
+        out.append('\n');
+    }
+
+    private static void field(StringBuilder out, Object value) {
+        out.append('\t');
+        if (value == null) {
+            out.append("\\N");
+        } else {
+            out.append(value);
+        }
+    }
+
+    /**
+     * Text value with COPY's backslash escapes for the delimiter, line breaks and backslash itself
+     */
+    private static void text(StringBuilder out, String value) {
+        out.append('\t');
+        if (value == null) {
+            out.append("\\N");
+            return;
+        }
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': out.append("\\\\"); break;
+                case '\t': out.append("\\t"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                default: out.append(c);
+            }
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+}
@@ -1,23 +1,44 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.CodeAnalysis;
+import com.example.demo.model.CodeAnalysisFingerprint;
+import com.example.demo.model.CodeAnalysisSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+// Read-only methods run on the replica pool when one is configured (see DataSourceConfig)
 @Repository
 public interface CodeAnalysisRepository extends JpaRepository<CodeAnalysis, Long> {
     
     // Find all analyses by user
+    @Transactional(readOnly = true)
     List<CodeAnalysis> findByUserId(Integer userId);
     
     // Find all analyses by project
+    @Transactional(readOnly = true)
     List<CodeAnalysis> findByProjectId(Integer projectId);
     
     // Find analyses by user and project
+    @Transactional(readOnly = true)
     List<CodeAnalysis> findByUserIdAndProjectId(Integer userId, Integer projectId);
     
     // Find by filename
+    @Transactional(readOnly = true)
     List<CodeAnalysis> findByFileName(String fileName);
+
+    // File name and content hash of every row in a project, for incremental uploads.
+    // Stays on the primary: a lagging replica would make just-saved files look new.
+    @Transactional
+    List<CodeAnalysisFingerprint> findFingerprintsByProjectIdOrderByIdAsc(Integer projectId);
+
+    // Keyset pages of summaries (no analysis_data) ordered by id; use PageRequest.of(0, limit)
+    @Transactional(readOnly = true)
+    List<CodeAnalysisSummary> findByUserIdAndIdGreaterThanOrderByIdAsc(Integer userId, Long afterId, Pageable page);
+
+    @Transactional(readOnly = true)
+    List<CodeAnalysisSummary> findByProjectIdAndIdGreaterThanOrderByIdAsc(Integer projectId, Long afterId, Pageable page);
 }
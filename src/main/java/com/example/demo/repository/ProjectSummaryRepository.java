@@ -0,0 +1,51 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ProjectSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProjectSummaryRepository extends JpaRepository<ProjectSummary, Integer> {
+
+    // Atomically add a batch's totals to a project's running summary (creating it if needed)
+    @Modifying
+    @Query(value = "INSERT INTO project_summary (project_id, file_count, total_lines, cyclomatic_sum, max_cyclomatic, " +
+            "try_count, catch_count, finally_count, updated_at) " +
+            "VALUES (:projectId, :fileCount, :totalLines, :cyclomaticSum, :maxCyclomatic, " +
+            ":tryCount, :catchCount, :finallyCount, now()) " +
+            "ON CONFLICT (project_id) DO UPDATE SET " +
+            "file_count = project_summary.file_count + EXCLUDED.file_count, " +
+            "total_lines = project_summary.total_lines + EXCLUDED.total_lines, " +
+            "cyclomatic_sum = project_summary.cyclomatic_sum + EXCLUDED.cyclomatic_sum, " +
+            "max_cyclomatic = GREATEST(project_summary.max_cyclomatic, EXCLUDED.max_cyclomatic), " +
+            "try_count = project_summary.try_count + EXCLUDED.try_count, " +
+            "catch_count = project_summary.catch_count + EXCLUDED.catch_count, " +
+            "finally_count = project_summary.finally_count + EXCLUDED.finally_count, " +
+            "updated_at = now()", nativeQuery = true)
+    void addToSummary(@Param("projectId") Integer projectId,
+                      @Param("fileCount") long fileCount,
+                      @Param("totalLines") long totalLines,
+                      @Param("cyclomaticSum") long cyclomaticSum,
+                      @Param("maxCyclomatic") int maxCyclomatic,
+                      @Param("tryCount") long tryCount,
+                      @Param("catchCount") long catchCount,
+                      @Param("finallyCount") long finallyCount);
+
+    // Recompute a project's summary from code_analysis (back-fill or after rows were replaced)
+    @Modifying
+    @Query(value = "INSERT INTO project_summary (project_id, file_count, total_lines, cyclomatic_sum, max_cyclomatic, " +
+            "try_count, catch_count, finally_count, updated_at) " +
+            "SELECT project_id, count(*), coalesce(sum(total_lines), 0), coalesce(sum(cyclomatic_complexity), 0), " +
+            "coalesce(max(cyclomatic_complexity), 0), coalesce(sum(try_count), 0), coalesce(sum(catch_count), 0), " +
+            "coalesce(sum(finally_count), 0), now() " +
+            "FROM code_analysis WHERE project_id = :projectId GROUP BY project_id " +
+            "ON CONFLICT (project_id) DO UPDATE SET " +
+            "file_count = EXCLUDED.file_count, total_lines = EXCLUDED.total_lines, " +
+            "cyclomatic_sum = EXCLUDED.cyclomatic_sum, max_cyclomatic = EXCLUDED.max_cyclomatic, " +
+            "try_count = EXCLUDED.try_count, catch_count = EXCLUDED.catch_count, " +
+            "finally_count = EXCLUDED.finally_count, updated_at = now()", nativeQuery = true)
+    int rebuildSummary(@Param("projectId") Integer projectId);
+}
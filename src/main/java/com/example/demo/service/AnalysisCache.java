@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FileMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU cache of analysis results keyed by a SHA-256 of the file content.
+ * Cached metrics are stored without regard to the file name; callers rename on the way out.
+ */
+@Component
+public class AnalysisCache {
+
+    private final int maxEntries;
+    private final Map<String, FileMetrics> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AnalysisCache(@Value("${analyzer.cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FileMetrics> eldest) {
+                if (size() > AnalysisCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Look up metrics for a content key, renamed to the requested file
+     */
+    public FileMetrics get(String key, String fileName) {
+        if (!isEnabled()) return null;
+
+        FileMetrics cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached.withFileName(fileName);
+    }
+
+    /**
+     * Remember metrics for a content key; PARTIAL results depend on timing, not content, and are not cached
+     */
+    public void put(String key, FileMetrics metrics) {
+        if (!isEnabled() || metrics.getStatus() == FileMetrics.Status.PARTIAL) return;
+
+        synchronized (entries) {
+            entries.put(key, metrics);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    public static final String BYTES_KEY_PREFIX = "b:";
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Key for raw uploaded bytes, from a digest that has consumed them
+     */
+    public static String keyOf(MessageDigest digest) {
+        return BYTES_KEY_PREFIX + HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Key for already decoded text; kept apart from byte keys since decoding is not always reversible
+     */
+    public static String keyOf(CharSequence content) {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        int used = 0;
+        for (int i = 0, n = content.length(); i < n; i++) {
+            char c = content.charAt(i);
+            buffer[used++] = (byte) (c >>> 8);
+            buffer[used++] = (byte) c;
+            if (used == buffer.length) {
+                digest.update(buffer, 0, used);
+                used = 0;
+            }
+        }
+        digest.update(buffer, 0, used);
+        return "c:" + HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * In-memory state of one asynchronous batch analysis: per-file results as they
+ * finish, plus the SSE subscribers that are notified of each one.
+ *
+ * Events are queued per subscriber under the job lock (which keeps them in order) and
+ * written by the sender executor, so a slow client never blocks the analysis threads.
+ * A subscriber's queue holds at most one event per file plus status and done.
+ */
+public class AnalysisJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final int totalFiles;
+    private final long createdAt = System.currentTimeMillis();
+
+    private Status status = Status.QUEUED;
+    private long finishedAt;
+    private final List<Map<String, Object>> results = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final Executor sender;
+
+    public AnalysisJob(String id, int totalFiles, Executor sender) {
+        this.id = id;
+        this.totalFiles = totalFiles;
+        this.sender = sender;
+    }
+
+    public String getId() { return id; }
+
+    public synchronized Status getStatus() { return status; }
+
+    public synchronized boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public synchronized long getFinishedAt() { return finishedAt; }
+
+    synchronized void start() {
+        status = Status.RUNNING;
+        broadcast("status", Map.of("status", status.name()));
+    }
+
+    synchronized void addResult(Map<String, Object> result) {
+        results.add(result);
+        broadcast("result", result);
+    }
+
+    synchronized void addError(String error) {
+        errors.add(error);
+        broadcast("error", Map.of("message", error));
+    }
+
+    synchronized void finish(Status finalStatus) {
+        status = finalStatus;
+        finishedAt = System.currentTimeMillis();
+        broadcast("done", snapshot(results.size(), errors.size()));
+        for (Subscriber subscriber : subscribers) {
+            subscriber.completeWhenDrained();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Replay everything so far to a new subscriber, then keep it updated until the job finishes
+     */
+    public synchronized void subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        for (Map<String, Object> result : results) {
+            subscriber.enqueue(SseEmitter.event().name("result").data(result));
+        }
+        for (String error : errors) {
+            subscriber.enqueue(SseEmitter.event().name("error").data(Map.of("message", error)));
+        }
+        if (isFinished()) {
+            subscriber.enqueue(SseEmitter.event().name("done").data(snapshot(results.size(), errors.size())));
+            subscriber.completeWhenDrained();
+            return;
+        }
+
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.schedule();
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Status plus the results and errors after the given offsets, for polling clients
+     */
+    public synchronized Map<String, Object> snapshot(int resultsFrom, int errorsFrom) {
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("jobId", id);
+        snapshot.put("status", status.name());
+        snapshot.put("totalFiles", totalFiles);
+        snapshot.put("successCount", results.size());
+        snapshot.put("errorCount", errors.size());
+        snapshot.put("completedFiles", results.size() + errors.size());
+        snapshot.put("createdAt", createdAt);
+        snapshot.put("results", new ArrayList<>(results.subList(Math.min(Math.max(resultsFrom, 0), results.size()), results.size())));
+        snapshot.put("errors", new ArrayList<>(errors.subList(Math.min(Math.max(errorsFrom, 0), errors.size()), errors.size())));
+        return snapshot;
+    }
+
+    private void broadcast(String event, Object data) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(SseEmitter.event().name(event).data(data));
+            subscriber.schedule();
+        }
+    }
+
+    /**
+     * One SSE client: its pending events, written in order by at most one sender task at a time
+     */
+    private class Subscriber {
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private boolean scheduled;          // guarded by this
+        private volatile boolean complete;  // complete the emitter once pending is empty
+        private volatile boolean dead;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (!dead) pending.add(event);
+        }
+
+        void completeWhenDrained() {
+            complete = true;
+            schedule();
+        }
+
+        void schedule() {
+            synchronized (this) {
+                if (scheduled || dead) return;
+                scheduled = true;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the client reconnects or polls
+                dead = true;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event = pending.poll();
+                if (event == null) {
+                    synchronized (this) {
+                        if (!pending.isEmpty()) continue;
+                        scheduled = false;
+                        if (!complete || dead) return;
+                        dead = true;
+                    }
+                    emitter.complete();
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away; the job keeps running for pollers
+                    dead = true;
+                    pending.clear();
+                    unsubscribe(this);
+                    synchronized (this) {
+                        scheduled = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
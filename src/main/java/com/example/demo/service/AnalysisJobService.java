@@ -0,0 +1,209 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CodeAnalysis;
+import com.example.demo.model.FileMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs batch analyses in the background so request threads return immediately.
+ * Jobs wait in the bounded jobExecutor queue; their files fan out over the analysis pool.
+ */
+@Service
+public class AnalysisJobService {
+
+    /**
+     * An uploaded file spooled to a temp file owned by the job (path is null for empty uploads)
+     */
+    public static class JobFile {
+        final String fileName;
+        final Path path;
+
+        public JobFile(String fileName, Path path) {
+            this.fileName = fileName;
+            this.path = path;
+        }
+
+        public String getFileName() { return fileName; }
+        public Path getPath() { return path; }
+    }
+
+    @Autowired
+    private AnalyzerService analyzerService;
+
+    @Autowired
+    private AnalyzerMetrics analyzerMetrics;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private ExecutorService analysisExecutor;
+
+    @Autowired
+    @Qualifier("jobExecutor")
+    private ExecutorService jobExecutor;
+
+    @Autowired
+    @Qualifier("sseExecutor")
+    private ExecutorService sseExecutor;
+
+    @Value("${analyzer.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService purger;
+
+    /**
+     * Purge finished jobs past their retention every minute, so results are freed without new submissions
+     */
+    @PostConstruct
+    void startPurger() {
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-job-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stopPurger() {
+        purger.shutdownNow();
+    }
+
+    /**
+     * Copy uploads to temp files owned by the job; multipart temp files are removed when the request ends
+     */
+    public List<JobFile> spool(MultipartFile[] files) throws IOException {
+        List<JobFile> spooled = new ArrayList<>(files.length);
+        try {
+            for (MultipartFile file : files) {
+                Path path = null;
+                if (!file.isEmpty()) {
+                    analyzerMetrics.recordUpload(file.getSize());
+                    path = Files.createTempFile("analysis-job-", ".upload");
+                    spooled.add(new JobFile(file.getOriginalFilename(), path));
+                    file.transferTo(path);
+                } else {
+                    spooled.add(new JobFile(file.getOriginalFilename(), null));
+                }
+            }
+        } catch (IOException e) {
+            deleteAll(spooled);
+            throw e;
+        }
+        return spooled;
+    }
+
+    /**
+     * Queue a job (analysis only when userId is null); throws RejectedExecutionException when the job queue is full
+     */
+    public AnalysisJob submit(List<JobFile> files, Integer userId, Integer projectId) {
+        purgeExpired();
+
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), files.size(), sseExecutor);
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(() -> run(job, files, userId, projectId));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteAll(files);
+            throw e;
+        }
+        return job;
+    }
+
+    public AnalysisJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void run(AnalysisJob job, List<JobFile> files, Integer userId, Integer projectId) {
+        job.start();
+        try {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (JobFile file : files) {
+                futures.add(analysisExecutor.submit(() -> process(job, file, userId, projectId)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            job.finish(AnalysisJob.Status.COMPLETED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(AnalysisJob.Status.FAILED);
+        } catch (ExecutionException e) {
+            job.finish(AnalysisJob.Status.FAILED);
+        } finally {
+            deleteAll(files);
+        }
+    }
+
+    private void process(AnalysisJob job, JobFile file, Integer userId, Integer projectId) {
+        if (file.path == null) {
+            job.addError(file.fileName + ": File is empty");
+            return;
+        }
+        try {
+            InputStreamSource source = () -> Files.newInputStream(file.path);
+            Map<String, Object> result = new HashMap<>();
+            if (userId == null) {
+                FileMetrics metrics = analyzerService.analyze(file.fileName, source);
+                result.put("fileName", metrics.getFileName());
+                result.put("metrics", metrics);
+            } else {
+                CodeAnalysis analysis = analyzerService.analyzeAndSave(file.fileName, source, userId, projectId);
+                result.put("fileName", analysis.getFileName());
+                result.put("analysisId", analysis.getId());
+            }
+            result.put("success", true);
+            job.addResult(result);
+        } catch (Exception e) {
+            job.addError(file.fileName + ": " + e.getMessage());
+        } finally {
+            delete(file);
+        }
+    }
+
+    private void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - retentionMinutes * 60_000;
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < cutoff);
+    }
+
+    private static void deleteAll(List<JobFile> files) {
+        for (JobFile file : files) {
+            delete(file);
+        }
+    }
+
+    private static void delete(JobFile file) {
+        if (file.path == null) return;
+        try {
+            Files.deleteIfExists(file.path);
+        } catch (IOException e) {
+            System.err.println("Failed to delete job spool file " + file.path + ": " + e.getMessage());
+        }
+    }
+}
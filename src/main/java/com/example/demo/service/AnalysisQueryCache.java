@@ -0,0 +1,254 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CodeAnalysis;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the per-user, per-project and per-user-and-project analysis lists.
+ *
+ * Writes made by this service are merged into cached lists once they commit, so a dashboard
+ * sees its own uploads without a reload. Each key has a version that writes bump; a load
+ * that raced with a write is returned but not cached. Rows written by other clients of
+ * the database (the Python app) show up when the entry's TTL runs out.
+ *
+ * The bound is the total number of cached rows across all lists, since rows (with their
+ * analysis JSON) are what takes the memory; least recently used lists go first.
+ */
+@Component
+public class AnalysisQueryCache {
+
+    private static class Entry {
+        final List<CodeAnalysis> rows;
+        final long loadedAt;
+
+        Entry(List<CodeAnalysis> rows, long loadedAt) {
+            this.rows = rows;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final int VERSION_STRIPES = 1024;  // versions are striped by key hash so they take fixed memory
+
+    private final int maxRows;
+    private final int maxRowsPerEntry;
+    private final long ttlMillis;
+    private final long writeSettleMillis;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedRows;  // guarded by entries
+    private final long[] versions = new long[VERSION_STRIPES];
+    private final long[] writtenAt = new long[VERSION_STRIPES];
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public AnalysisQueryCache(MeterRegistry registry,
+                              @Value("${analyzer.query-cache.max-rows:50000}") int maxRows,
+                              @Value("${analyzer.query-cache.max-rows-per-entry:5000}") int maxRowsPerEntry,
+                              @Value("${analyzer.query-cache.ttl-seconds:30}") long ttlSeconds,
+                              @Value("${analyzer.query-cache.write-settle-ms:0}") long writeSettleMillis) {
+        this.maxRows = maxRows;
+        this.maxRowsPerEntry = Math.min(maxRowsPerEntry, maxRows);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.writeSettleMillis = writeSettleMillis;
+        this.hits = Counter.builder("analyzer.query-cache.requests")
+                .description("Analysis list queries answered by the query cache")
+                .tag("result", "hit")
+                .register(registry);
+        this.misses = Counter.builder("analyzer.query-cache.requests")
+                .description("Analysis list queries answered by the query cache")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("analyzer.query-cache.size", this, AnalysisQueryCache::size)
+                .description("Cached analysis lists")
+                .register(registry);
+        Gauge.builder("analyzer.query-cache.rows", this, AnalysisQueryCache::rows)
+                .description("Analysis rows held by cached lists")
+                .register(registry);
+        Gauge.builder("analyzer.query-cache.hit.ratio", this, AnalysisQueryCache::hitRatio)
+                .description("Share of analysis list queries answered from the cache")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return maxRows > 0 && ttlMillis > 0;
+    }
+
+    public static String userKey(Integer userId) {
+        return "u:" + userId;
+    }
+
+    public static String projectKey(Integer projectId) {
+        return "p:" + projectId;
+    }
+
+    public static String userProjectKey(Integer userId, Integer projectId) {
+        return "up:" + userId + ":" + projectId;
+    }
+
+    /**
+     * Cached list for the key, or the loader's result (cached unless a write to the key raced with it)
+     */
+    public List<CodeAnalysis> get(String key, Supplier<List<CodeAnalysis>> loader) {
+        if (!isEnabled()) return loader.get();
+
+        long version;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt < ttlMillis) {
+                hits.increment();
+                return entry.rows;
+            }
+            if (entry != null) remove(key);
+            version = versions[stripe(key)];
+        }
+        misses.increment();
+
+        long loadedAt = System.currentTimeMillis();
+        List<CodeAnalysis> rows = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        if (rows.size() <= maxRowsPerEntry) {
+            synchronized (entries) {
+                // With a read replica, a load started soon after a write may not see it yet
+                int stripe = stripe(key);
+                if (versions[stripe] == version && loadedAt - writtenAt[stripe] >= writeSettleMillis) {
+                    store(key, new Entry(rows, loadedAt));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Merge inserted or updated rows into the cached lists they belong to, after the current
+     * transaction commits (immediately when there is none). Rows replace cached rows with the same id.
+     */
+    public void upsert(Collection<CodeAnalysis> rows) {
+        if (!isEnabled() || rows.isEmpty()) return;
+
+        List<CodeAnalysis> written = new ArrayList<>(rows);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge(written);
+                }
+            });
+        } else {
+            merge(written);
+        }
+    }
+
+    private void merge(List<CodeAnalysis> rows) {
+        Map<String, List<CodeAnalysis>> byKey = new HashMap<>();
+        for (CodeAnalysis row : rows) {
+            byKey.computeIfAbsent(userKey(row.getUserId()), k -> new ArrayList<>()).add(row);
+            if (row.getProjectId() != null) {
+                byKey.computeIfAbsent(projectKey(row.getProjectId()), k -> new ArrayList<>()).add(row);
+            }
+            byKey.computeIfAbsent(userProjectKey(row.getUserId(), row.getProjectId()), k -> new ArrayList<>()).add(row);
+        }
+
+        synchronized (entries) {
+            byKey.forEach((key, written) -> {
+                versions[stripe(key)]++;
+                writtenAt[stripe(key)] = System.currentTimeMillis();
+                Entry entry = entries.get(key);
+                if (entry == null) return;
+
+                List<CodeAnalysis> merged = merge(entry.rows, written);
+                if (merged.size() <= maxRowsPerEntry) {
+                    store(key, new Entry(merged, entry.loadedAt));
+                } else {
+                    remove(key);
+                }
+            });
+        }
+    }
+
+    private static List<CodeAnalysis> merge(List<CodeAnalysis> cached, List<CodeAnalysis> written) {
+        Map<Long, Integer> positions = new HashMap<>(cached.size() * 2);
+        for (int i = 0; i < cached.size(); i++) {
+            positions.put(cached.get(i).getId(), i);
+        }
+        List<CodeAnalysis> merged = new ArrayList<>(cached.size() + written.size());
+        merged.addAll(cached);
+        for (CodeAnalysis row : written) {
+            Integer position = positions.get(row.getId());
+            if (position != null) {
+                merged.set(position, row);
+            } else {
+                positions.put(row.getId(), merged.size());
+                merged.add(row);
+            }
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    /**
+     * Put an entry and evict least recently used lists until the row total fits; caller holds the lock
+     */
+    private void store(String key, Entry entry) {
+        remove(key);
+        entries.put(key, entry);
+        cachedRows += entry.rows.size();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (cachedRows > maxRows && eldest.hasNext()) {
+            cachedRows -= eldest.next().getValue().rows.size();
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) cachedRows -= removed.rows.size();
+    }
+
+    private static int stripe(String key) {
+        return key.hashCode() & (VERSION_STRIPES - 1);
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private long rows() {
+        synchronized (entries) {
+            return cachedRows;
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("rows", rows());
+        stats.put("maxRows", maxRows);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", (long) hits.count());
+        stats.put("misses", (long) misses.count());
+        stats.put("hitRatio", hitRatio());
+        return stats;
+    }
+}
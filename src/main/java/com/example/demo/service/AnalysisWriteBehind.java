@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CodeAnalysis;
+import com.example.demo.model.FileMetrics;
+import com.example.demo.repository.CodeAnalysisBatchWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind for analysis rows (analyzer.write-behind.enabled).
+ *
+ * Rows get a reserved id and are queued; a background flusher drains the queue into the
+ * database in grouped transactions. When the queue stays full the caller writes its own
+ * row, so producers are slowed down to database speed rather than piling up memory.
+ * Rows still queued at shutdown are flushed before the application context closes.
+ */
+@Component
+public class AnalysisWriteBehind {
+
+    private static class Pending {
+        final CodeAnalysis row;
+        final FileMetrics metrics;
+
+        Pending(CodeAnalysis row, FileMetrics metrics) {
+            this.row = row;
+            this.metrics = metrics;
+        }
+    }
+
+    @Autowired
+    private CodeAnalysisBatchWriter batchWriter;
+
+    @Autowired
+    private ProjectSummaryService projectSummaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AnalyzerMetrics analyzerMetrics;
+
+    @Autowired
+    private AnalysisQueryCache queryCache;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final int maxAttempts;
+    private final long maxBackoffMs;
+    private final BlockingQueue<Pending> queue;
+
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public AnalysisWriteBehind(MeterRegistry registry,
+                               @Value("${analyzer.write-behind.enabled:false}") boolean enabled,
+                               @Value("${analyzer.write-behind.queue-capacity:10000}") int queueCapacity,
+                               @Value("${analyzer.write-behind.batch-size:500}") int batchSize,
+                               @Value("${analyzer.write-behind.offer-timeout-ms:1000}") long offerTimeoutMs,
+                               @Value("${analyzer.write-behind.max-attempts:3}") int maxAttempts,
+                               @Value("${analyzer.write-behind.max-backoff-ms:30000}") long maxBackoffMs) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.maxBackoffMs = maxBackoffMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("analyzer.write-behind.queue.size", queue, BlockingQueue::size)
+                .description("Analysis rows waiting to be written")
+                .register(registry);
+
+        this.flusher = new Thread(this::flushLoop, "analysis-write-behind");
+        flusher.setDaemon(true);
+        if (enabled) {
+            flusher.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Assign the row its id and queue it; returns once the row is queued or, under backpressure, written
+     */
+    public CodeAnalysis submit(CodeAnalysis row, FileMetrics metrics) {
+        LocalDateTime now = LocalDateTime.now();
+        row.setCreatedAt(now);
+        row.setAnalyzedAt(now);
+        row.setId(batchWriter.reserveId());
+
+        Pending pending = new Pending(row, metrics);
+        boolean queued = false;
+        if (running) {
+            try {
+                queued = queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!queued) {
+            // Queue full (or shutting down): the caller pays for its own insert
+            write(List.of(pending));
+        }
+        return row;
+    }
+
+    private void flushLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+
+                List<Pending> batch = new ArrayList<>(Math.min(batchSize, queue.size() + 1));
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) throws InterruptedException {
+        RuntimeException failure = writeWithRetries(batch);
+        if (failure == null) return;
+
+        if (batch.size() > 1 && isDataError(failure)) {
+            // One bad row fails the whole batch: write row by row so only the bad rows are lost
+            for (Pending pending : batch) {
+                RuntimeException rowFailure = writeWithRetries(List.of(pending));
+                if (rowFailure != null) drop(pending, rowFailure);
+            }
+        } else {
+            for (Pending pending : batch) {
+                drop(pending, failure);
+            }
+        }
+    }
+
+    /**
+     * Write with capped exponential backoff; returns the failure, or null once written.
+     * Data errors fail at once since retrying cannot fix them. Other errors (database down,
+     * no pool connection) are retried until the write succeeds; after shutdown has begun,
+     * at most max-attempts times so the remaining rows still get their turn.
+     */
+    private RuntimeException writeWithRetries(List<Pending> batch) throws InterruptedException {
+        long backoff = 200;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                return null;
+            } catch (RuntimeException e) {
+                if (isDataError(e) || (!running && attempt >= maxAttempts)) return e;
+                if (attempt == maxAttempts) {
+                    System.err.println("Write-behind batch of " + batch.size() + " analyses failing, still retrying: " + e.getMessage());
+                }
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    /**
+     * Whether the failure is caused by the rows themselves: an integrity violation (SQLState class 23)
+     * or a bad value (class 22), as opposed to a connection or server problem
+     */
+    private static boolean isDataError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) return true;
+            if (cause instanceof SQLException) {
+                for (SQLException sql = (SQLException) cause; sql != null; sql = sql.getNextException()) {
+                    String state = sql.getSQLState();
+                    if (state != null && (state.startsWith("22") || state.startsWith("23"))) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void drop(Pending pending, RuntimeException e) {
+        analyzerMetrics.recordError("write-behind");
+        analyzerMetrics.recordWriteBehindDropped();
+        System.err.println("Write-behind dropped analysis " + pending.row.getId() + " (" + pending.row.getFileName() +
+                ", user " + pending.row.getUserId() + ", project " + pending.row.getProjectId() + "): " + e.getMessage());
+    }
+
+    /**
+     * Insert the rows and update project totals in one transaction
+     */
+    private void write(List<Pending> batch) {
+        List<CodeAnalysis> rows = new ArrayList<>(batch.size());
+        Map<Integer, List<FileMetrics>> byProject = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            rows.add(pending.row);
+            byProject.computeIfAbsent(pending.row.getProjectId(), id -> new ArrayList<>()).add(pending.metrics);
+        }
+
+        Timer.Sample sample = analyzerMetrics.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batchWriter.insertAll(rows);
+                byProject.forEach(projectSummaryService::record);
+                queryCache.upsert(rows);
+            });
+        } finally {
+            analyzerMetrics.stopDbSave(sample, rows.size());
+        }
+    }
+
+    /**
+     * Stop queueing and drain what is left
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (flusher.isAlive()) {
+            flusher.join(30_000);
+            if (flusher.isAlive()) {
+                System.err.println("Write-behind shutdown timed out with " + queue.size() + " analyses unsaved");
+                flusher.interrupt();
+            }
+        }
+    }
+}
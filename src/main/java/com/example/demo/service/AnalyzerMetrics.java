@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FileMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for each stage of the analysis pipeline, scraped from /actuator/prometheus
+ */
+@Component
+public class AnalyzerMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Timer uploadRead;
+    private final Timer contentHash;
+    private final Timer analyze;
+    private final Timer jsonBuild;
+    private final Timer dbSave;
+
+    private final DistributionSummary uploadBytes;
+    private final DistributionSummary saveBatchSize;
+    private final Counter linesAnalyzed;
+    private final Counter charactersAnalyzed;
+
+    public AnalyzerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.uploadRead = stageTimer("upload_read");
+        this.contentHash = stageTimer("content_hash");
+        this.analyze = stageTimer("analyze");
+        this.jsonBuild = stageTimer("json_build");
+        this.dbSave = stageTimer("db_save");
+
+        this.uploadBytes = DistributionSummary.builder("analyzer.upload.size")
+                .description("Size of each uploaded file")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.saveBatchSize = DistributionSummary.builder("analyzer.save.batch.size")
+                .description("Rows written per database save")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.linesAnalyzed = Counter.builder("analyzer.lines.analyzed")
+                .description("Source lines scanned")
+                .register(registry);
+        this.charactersAnalyzed = Counter.builder("analyzer.characters.analyzed")
+                .description("Source characters scanned")
+                .register(registry);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("analyzer.stage")
+                .description("Time spent per pipeline stage")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stopContentHash(Timer.Sample sample) { sample.stop(contentHash); }
+    public void stopAnalyze(Timer.Sample sample) { sample.stop(analyze); }
+
+    // Stream scans split one pass into read and analysis time, so they record durations directly
+    public void recordUploadRead(long nanos) { uploadRead.record(nanos, TimeUnit.NANOSECONDS); }
+    public void recordAnalyze(long nanos) { analyze.record(nanos, TimeUnit.NANOSECONDS); }
+    public void stopJsonBuild(Timer.Sample sample) { sample.stop(jsonBuild); }
+
+    public void stopDbSave(Timer.Sample sample, int rows) {
+        sample.stop(dbSave);
+        saveBatchSize.record(rows);
+    }
+
+    public void recordAnalyzed(FileMetrics metrics) {
+        linesAnalyzed.increment(metrics.getTotalLines());
+        charactersAnalyzed.increment(metrics.getTotalCharacters());
+    }
+
+    public void recordUpload(long bytes) {
+        uploadBytes.record(bytes);
+    }
+
+    public void recordError(String endpoint) {
+        registry.counter("analyzer.api.errors", "endpoint", endpoint).increment();
+    }
+
+    /**
+     * An analysis whose id was already returned to the caller but that could not be written
+     */
+    public void recordWriteBehindDropped() {
+        registry.counter("analyzer.write-behind.dropped").increment();
+    }
+
+    public void recordRejected(String scope) {
+        registry.counter("analyzer.admission.rejected", "scope", scope).increment();
+    }
+}
@@ -1,18 +1,43 @@
 package com.example.demo.service;
 
 import com.example.demo.model.CodeAnalysis;
+import com.example.demo.model.CodeAnalysisFingerprint;
+import com.example.demo.model.CodeAnalysisSummary;
 import com.example.demo.model.FileMetrics;
+import com.example.demo.model.IncrementalChange;
+import com.example.demo.repository.CodeAnalysisBatchWriter;
 import com.example.demo.repository.CodeAnalysisRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Arrays;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 @Service
 public class AnalyzerService {
@@ -23,162 +48,520 @@ public class AnalyzerService {
     @Autowired
     private ObjectMapper objectMapper;  // For JSON serialization
 
+    @Autowired
+    private AnalysisCache analysisCache;
+
+    @Autowired
+    private ProjectSummaryService projectSummaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AnalyzerMetrics analyzerMetrics;
+
+    @Autowired
+    private AnalysisWriteBehind writeBehind;
+
+    @Autowired
+    private CodeAnalysisBatchWriter batchWriter;
+
+    @Autowired
+    private AnalysisQueryCache queryCache;
+
+    @Value("${analyzer.bulk.copy-threshold:1000}")
+    private int copyThreshold;  // batches at least this large are written with COPY instead of INSERT
+
+    @Value("${analyzer.limits.max-line-length:10000}")
+    private int maxLineLength;  // longer lines (minified/generated code) are only counted
+
+    @Value("${analyzer.limits.max-lines:200000}")
+    private int maxLines;
+
+    @Value("${analyzer.limits.file-budget-ms:5000}")
+    private long fileBudgetMs;  // 0 = no per-file time budget
+
+    public AnalyzerService() {
+    }
+
+    /**
+     * Service outside Spring with just the collaborators toAnalysisJson needs, for benchmarks
+     */
+    AnalyzerService(ObjectMapper objectMapper, AnalyzerMetrics analyzerMetrics) {
+        this.objectMapper = objectMapper;
+        this.analyzerMetrics = analyzerMetrics;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehind.isEnabled();
+    }
+
     /**
      * Analyze Java file and return metrics (without saving to DB)
      */
     public FileMetrics analyze(String fileName, String content) {
+        if (!analysisCache.isEnabled()) {
+            return scan(fileName, content);
+        }
+
+        String key = AnalysisCache.keyOf(content);
+        FileMetrics cached = analysisCache.get(key, fileName);
+        if (cached != null) {
+            return cached;
+        }
+
+        FileMetrics metrics = scan(fileName, content);
+        analysisCache.put(key, metrics);
+        return metrics;
+    }
 
-        List<String> lines = Arrays.asList(content.split("\n"));
+    /**
+     * Analyze a re-readable upload, skipping the scan when identical content was analyzed before
+     */
+    public FileMetrics analyze(String fileName, InputStreamSource source) throws IOException {
+        if (!analysisCache.isEnabled()) {
+            try (InputStream in = source.getInputStream()) {
+                return scanAndHash(fileName, in);
+            }
+        }
 
-        int totalLines = lines.size();
-        int blankLines = 0;
-        int commentLines = 0;
-        int importCount = 0;
-        int variableCount = 0;
-        int tryCount = 0, catchCount = 0, finallyCount = 0;
-        int inheritanceCount = 0;
-        int encapsulationCount = 0;
-        int overridingCount = 0;
-        int overloadingCount = 0;
+        // Hashing is much cheaper than scanning, so check the cache before the real pass
+        return analyze(fileName, source, contentKey(source));
+    }
 
-        int cyclomatic = 1;  
+    /**
+     * Content key of a re-readable upload, as used by the cache and stored in content_hash
+     */
+    public String contentKey(InputStreamSource source) throws IOException {
+        Timer.Sample sample = analyzerMetrics.start();
+        MessageDigest digest = AnalysisCache.newDigest();
+        try (InputStream in = source.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            analyzerMetrics.stopContentHash(sample);
+        }
+        return AnalysisCache.keyOf(digest);
+    }
 
-        for (String line : lines) {
-            String trimmed = line.trim();
+    private FileMetrics analyze(String fileName, InputStreamSource source, String key) throws IOException {
+        FileMetrics cached = analysisCache.get(key, fileName);
+        if (cached != null) {
+            return cached;
+        }
 
-            if (trimmed.isBlank()) blankLines++;
+        FileMetrics metrics;
+        try (InputStream in = source.getInputStream()) {
+            metrics = scan(fileName, in).withContentHash(key);
+        }
+        analysisCache.put(key, metrics);
+        return metrics;
+    }
 
-            if (trimmed.startsWith("//") || trimmed.startsWith("/*") || trimmed.endsWith("*/"))
-                commentLines++;
+    /**
+     * Analyze a UTF-8 stream incrementally; memory use does not grow with the file size
+     */
+    public FileMetrics analyze(String fileName, InputStream in) throws IOException {
+        // A plain stream cannot be read twice, so only populate the cache for later uploads
+        FileMetrics metrics = scanAndHash(fileName, in);
+        analysisCache.put(metrics.getContentHash(), metrics);
+        return metrics;
+    }
 
-            if (trimmed.startsWith("import")) importCount++;
+    /**
+     * Scan a stream and compute its content key in the same pass
+     */
+    private FileMetrics scanAndHash(String fileName, InputStream in) throws IOException {
+        MessageDigest digest = AnalysisCache.newDigest();
+        FileMetrics metrics = scan(fileName, new DigestInputStream(in, digest));
+        return metrics.withContentHash(AnalysisCache.keyOf(digest));
+    }
 
-            if (trimmed.matches(".*(String|int|double|float|boolean|char|long|var).*=.*;"))
-                variableCount++;
+    /**
+     * Analyze a UTF-8 channel incrementally
+     */
+    public FileMetrics analyze(String fileName, ReadableByteChannel channel) throws IOException {
+        return analyze(fileName, Channels.newInputStream(channel));
+    }
 
-            if (trimmed.contains("extends") || trimmed.contains("implements"))
-                inheritanceCount++;
+    /**
+     * Analyze every .java entry of a zip, tar or tar.gz stream as it is decompressed.
+     * The format is detected from the leading bytes; nothing is buffered beyond the current entry.
+     */
+    public void analyzeArchive(InputStream in, Consumer<FileMetrics> sink) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, 8192);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
 
-            if (trimmed.contains("private") || trimmed.contains("public") || trimmed.contains("protected"))
-                encapsulationCount++;
+        if (first == 'P' && second == 'K') {
+            ZipInputStream zip = new ZipInputStream(buffered, StandardCharsets.UTF_8);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory() && isJavaSource(entry.getName())) {
+                    sink.accept(analyze(entry.getName(), zip));
+                }
+            }
+        } else {
+            InputStream tarStream = (first == 0x1f && second == 0x8b) ? new GZIPInputStream(buffered, 8192) : buffered;
+            TarInputStream tar = new TarInputStream(tarStream);
+            String name;
+            while ((name = tar.getNextEntry()) != null) {
+                if (isJavaSource(name)) {
+                    sink.accept(analyze(name, tar));
+                }
+            }
+        }
+    }
 
-            if (trimmed.contains("@Override"))
-                overridingCount++;
+    private static boolean isJavaSource(String entryName) {
+        return entryName.endsWith(".java");
+    }
 
-            if (trimmed.matches(".*\\(.*\\).*\\{.*"))
-                overloadingCount++;
+    private FileMetrics scan(String fileName, InputStream in) throws IOException {
+        // Time spent inside read() is upload I/O; the rest of the pass is the analysis itself
+        TimedInputStream timed = new TimedInputStream(in);
+        long start = System.nanoTime();
+        try {
+            // Raw UTF-8 bytes: ASCII is scanned directly, only non-ASCII runs are decoded
+            FileMetrics metrics = newScanner().accept(timed).finish(fileName);
+            analyzerMetrics.recordAnalyzed(metrics);
+            return metrics;
+        } finally {
+            analyzerMetrics.recordUploadRead(timed.readNanos);
+            analyzerMetrics.recordAnalyze(System.nanoTime() - start - timed.readNanos);
+        }
+    }
 
-            if (trimmed.contains("if") || trimmed.contains("for") || trimmed.contains("while") ||
-                trimmed.contains("case") || trimmed.contains("&&") || trimmed.contains("||"))
-                cyclomatic++;
+    /**
+     * Accumulates the time spent waiting on the underlying stream
+     */
+    private static final class TimedInputStream extends FilterInputStream {
+        long readNanos;
 
-            if (trimmed.contains("try")) tryCount++;
-            if (trimmed.contains("catch")) catchCount++;
-            if (trimmed.contains("finally")) finallyCount++;
+        TimedInputStream(InputStream in) {
+            super(in);
         }
 
-        // *Complexity Percentage Example: (Cyclomatic / Total Lines) * 100*
-        double complexityPercentage = ((double) cyclomatic / totalLines) * 100;
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.read();
+            } finally {
+                readNanos += System.nanoTime() - start;
+            }
+        }
 
-        // Character wise analysis
-        int vowels = 0, consonants = 0, special = 0;
-        for (char c : content.toCharArray()) {
-            if (Character.isAlphabetic(c)) {
-                if ("AEIOUaeiou".indexOf(c) >= 0) vowels++;
-                else consonants++;
-            } else if (!Character.isWhitespace(c) && !Character.isDigit(c)) {
-                special++;
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.read(buffer, offset, length);
+            } finally {
+                readNanos += System.nanoTime() - start;
             }
         }
+    }
+
+    private FileMetrics scan(String fileName, String content) {
+        Timer.Sample sample = analyzerMetrics.start();
+        try {
+            FileMetrics metrics = newScanner().accept(content).finish(fileName);
+            analyzerMetrics.recordAnalyzed(metrics);
+            return metrics;
+        } finally {
+            analyzerMetrics.stopAnalyze(sample);
+        }
+    }
 
-        return new FileMetrics(
-                fileName,
-                totalLines,
-                blankLines,
-                commentLines,
-                importCount,
-                variableCount,
-                inheritanceCount,
-                encapsulationCount,
-                overridingCount,
-                overloadingCount,
-                cyclomatic,
-                complexityPercentage,
-                tryCount,
-                catchCount,
-                finallyCount,
-                vowels,
-                consonants,
-                special,
-                content.length()
-        );
+    private SourceScanner newScanner() {
+        return new SourceScanner(maxLineLength, maxLines, TimeUnit.MILLISECONDS.toNanos(fileBudgetMs));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = analysisCache.stats();
+        stats.put("queries", queryCache.stats());
+        return stats;
     }
 
     /**
      * Analyze Java file and save results to database
      */
     public CodeAnalysis analyzeAndSave(String fileName, String content, Integer userId, Integer projectId) {
-        // First, analyze the file
-        FileMetrics metrics = analyze(fileName, content);
-        
+        return save(analyze(fileName, content), userId, projectId);
+    }
+
+    /**
+     * Analyze a UTF-8 stream and save results to database
+     */
+    public CodeAnalysis analyzeAndSave(String fileName, InputStream in, Integer userId, Integer projectId) throws IOException {
+        return save(analyze(fileName, in), userId, projectId);
+    }
+
+    /**
+     * Analyze a re-readable upload (through the cache) and save results to database
+     */
+    public CodeAnalysis analyzeAndSave(String fileName, InputStreamSource source, Integer userId, Integer projectId) throws IOException {
+        return save(analyze(fileName, source), userId, projectId);
+    }
+
+    /**
+     * Save already computed metrics to database.
+     * In write-behind mode the returned row has its id but may not be stored yet.
+     */
+    public CodeAnalysis save(FileMetrics metrics, Integer userId, Integer projectId) {
+        CodeAnalysis analysis = toEntity(metrics, userId, projectId);
+        if (writeBehind.isEnabled()) {
+            return writeBehind.submit(analysis, metrics);
+        }
+
+        // Programmatic transaction: save is also reached through internal calls that bypass the proxy
+        Timer.Sample sample = analyzerMetrics.start();
+        try {
+            return transactionTemplate.execute(status -> {
+                CodeAnalysis saved = codeAnalysisRepository.save(analysis);
+                projectSummaryService.record(projectId, List.of(metrics));
+                queryCache.upsert(List.of(saved));
+                return saved;
+            });
+        } finally {
+            analyzerMetrics.stopDbSave(sample, 1);
+        }
+    }
+
+    /**
+     * Save a whole batch of metrics in one transaction using JDBC batched inserts
+     */
+    @Transactional
+    public List<CodeAnalysis> saveAll(List<FileMetrics> metrics, Integer userId, Integer projectId) {
+        List<CodeAnalysis> analyses = new ArrayList<>(metrics.size());
+        for (FileMetrics fileMetrics : metrics) {
+            analyses.add(toEntity(fileMetrics, userId, projectId));
+        }
+        Timer.Sample sample = analyzerMetrics.start();
+        try {
+            List<CodeAnalysis> saved = analyses.size() >= copyThreshold
+                    ? copyAll(analyses)
+                    : codeAnalysisRepository.saveAll(analyses);
+            projectSummaryService.record(projectId, metrics);
+            queryCache.upsert(saved);
+            return saved;
+        } finally {
+            analyzerMetrics.stopDbSave(sample, analyses.size());
+        }
+    }
+
+    /**
+     * Bulk path for large batches: ids are reserved up front and the rows streamed in with COPY
+     */
+    private List<CodeAnalysis> copyAll(List<CodeAnalysis> analyses) {
+        LocalDateTime now = LocalDateTime.now();
+        for (CodeAnalysis analysis : analyses) {
+            analysis.setCreatedAt(now);
+            analysis.setAnalyzedAt(now);
+        }
+        batchWriter.assignIds(analyses);
+        batchWriter.copyAll(analyses);
+        return analyses;
+    }
+
+    /**
+     * Latest stored fingerprint per file name of a project, for incremental uploads
+     */
+    public Map<String, CodeAnalysisFingerprint> getFingerprints(Integer projectId) {
+        Map<String, CodeAnalysisFingerprint> byName = new HashMap<>();
+        // Ordered by id, so older duplicate rows are overwritten by the newest one
+        for (CodeAnalysisFingerprint fingerprint : codeAnalysisRepository.findFingerprintsByProjectIdOrderByIdAsc(projectId)) {
+            byName.put(fingerprint.getFileName(), fingerprint);
+        }
+        return byName;
+    }
+
+    /**
+     * Compare an uploaded file with its stored fingerprint and analyze it only if it changed
+     */
+    public IncrementalChange diff(String fileName, InputStreamSource source, CodeAnalysisFingerprint existing) throws IOException {
+        String key = contentKey(source);
+        if (existing == null) {
+            return new IncrementalChange(fileName, key, analyze(fileName, source, key), null, IncrementalChange.Status.ADDED);
+        }
+        if (key.equals(existing.getContentHash())) {
+            return new IncrementalChange(fileName, key, null, existing.getId(), IncrementalChange.Status.SKIPPED);
+        }
+        return new IncrementalChange(fileName, key, analyze(fileName, source, key), existing.getId(), IncrementalChange.Status.CHANGED);
+    }
+
+    /**
+     * Insert added files and update changed rows in place, in one transaction.
+     * Returns the stored row for every added or changed file, in input order.
+     */
+    @Transactional
+    public List<CodeAnalysis> applyChanges(List<IncrementalChange> changes, Integer userId, Integer projectId) {
+        List<Long> changedIds = new ArrayList<>();
+        for (IncrementalChange change : changes) {
+            if (change.getStatus() == IncrementalChange.Status.CHANGED) changedIds.add(change.getExistingId());
+        }
+        Map<Long, CodeAnalysis> existing = new HashMap<>();
+        for (CodeAnalysis analysis : codeAnalysisRepository.findAllById(changedIds)) {
+            existing.put(analysis.getId(), analysis);
+        }
+
+        List<CodeAnalysis> rows = new ArrayList<>();
+        List<FileMetrics> added = new ArrayList<>();
+        for (IncrementalChange change : changes) {
+            FileMetrics metrics = change.getMetrics();
+            CodeAnalysis row;
+            if (change.getStatus() == IncrementalChange.Status.SKIPPED) {
+                continue;
+            } else if (change.getStatus() == IncrementalChange.Status.CHANGED && existing.containsKey(change.getExistingId())) {
+                row = existing.get(change.getExistingId());
+                row.applyMetrics(metrics);
+                row.setAnalysisData(toAnalysisJson(metrics, userId, projectId));
+                row.setAnalyzedAt(LocalDateTime.now());
+            } else {
+                row = toEntity(metrics, userId, projectId);
+                added.add(metrics);
+            }
+            row.setContentHash(storedHash(metrics));
+            rows.add(row);
+        }
+
+        Timer.Sample sample = analyzerMetrics.start();
+        try {
+            List<CodeAnalysis> saved = codeAnalysisRepository.saveAll(rows);
+
+            if (rows.size() > added.size()) {
+                // Rows were replaced, so the running totals (including the max) must be recomputed
+                projectSummaryService.rebuild(projectId);
+            } else {
+                projectSummaryService.record(projectId, added);
+            }
+            queryCache.upsert(saved);
+            return saved;
+        } finally {
+            analyzerMetrics.stopDbSave(sample, rows.size());
+        }
+    }
+
+    /**
+     * Build the entity, including the JSON analysis data, for a file's metrics
+     */
+    private CodeAnalysis toEntity(FileMetrics metrics, Integer userId, Integer projectId) {
+        String fileName = metrics.getFileName();
+
         // Create CodeAnalysis entity
         CodeAnalysis analysis = new CodeAnalysis(userId, projectId, fileName, metrics);
+        analysis.setAnalysisData(toAnalysisJson(metrics, userId, projectId));
+        analysis.setContentHash(storedHash(metrics));
         
-        // Create JSON data with full analysis details
-        try {
-            Map<String, Object> analysisJson = new HashMap<>();
-            analysisJson.put("fileName", fileName);
-            analysisJson.put("userId", userId);
-            analysisJson.put("projectId", projectId);
-            analysisJson.put("fileType", "java");
-            
-            // Add all metrics
-            Map<String, Object> metricsMap = new HashMap<>();
-            metricsMap.put("totalLines", metrics.getTotalLines());
-            metricsMap.put("blankLines", metrics.getBlankLines());
-            metricsMap.put("commentLines", metrics.getCommentLines());
-            metricsMap.put("importCount", metrics.getImportCount());
-            metricsMap.put("variableCount", metrics.getVariableCount());
-            metricsMap.put("inheritanceCount", metrics.getInheritanceCount());
-            metricsMap.put("encapsulationCount", metrics.getEncapsulationCount());
-            metricsMap.put("overrideMethods", metrics.getOverrideMethods());
-            metricsMap.put("overloadedMethods", metrics.getOverloadedMethods());
-            metricsMap.put("cyclomaticComplexity", metrics.getCyclomaticComplexity());
-            metricsMap.put("complexityPercentage", metrics.getComplexityPercentage());
-            metricsMap.put("tryCount", metrics.getTryCount());
-            metricsMap.put("catchCount", metrics.getCatchCount());
-            metricsMap.put("finallyCount", metrics.getFinallyCount());
-            metricsMap.put("vowels", metrics.getVowels());
-            metricsMap.put("consonants", metrics.getConsonants());
-            metricsMap.put("specialChars", metrics.getSpecialChars());
-            metricsMap.put("totalCharacters", metrics.getTotalCharacters());
-            
-            analysisJson.put("metrics", metricsMap);
-            analysisJson.put("timestamp", System.currentTimeMillis());
-            
-            // Convert to JSON string
-            String jsonData = objectMapper.writeValueAsString(analysisJson);
-            analysis.setAnalysisData(jsonData);
-            
-        } catch (Exception e) {
+        return analysis;
+    }
+
+    /**
+     * content_hash for a row, so a later incremental upload can skip the unchanged file.
+     * Only byte keys are stored, since diff() compares against the uploaded bytes; a PARTIAL
+     * result depends on timing, so it gets no hash and the next upload analyzes the file again.
+     */
+    private static String storedHash(FileMetrics metrics) {
+        String hash = metrics.getContentHash();
+        if (hash == null || !hash.startsWith(AnalysisCache.BYTES_KEY_PREFIX)) return null;
+        return metrics.getStatus() != FileMetrics.Status.PARTIAL ? hash : null;
+    }
+
+    /**
+     * Full analysis details stored in the analysis_data column, streamed straight from the
+     * metrics with a JsonGenerator instead of going through intermediate maps
+     */
+    String toAnalysisJson(FileMetrics metrics, Integer userId, Integer projectId) {
+        Timer.Sample sample = analyzerMetrics.start();
+        StringWriter out = new StringWriter(768);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("fileName", metrics.getFileName());
+            writeNullableNumber(json, "userId", userId);
+            writeNullableNumber(json, "projectId", projectId);
+            json.writeStringField("fileType", "java");
+            json.writeStringField("status", metrics.getStatus().name());
+
+            json.writeObjectFieldStart("metrics");
+            json.writeNumberField("totalLines", metrics.getTotalLines());
+            json.writeNumberField("blankLines", metrics.getBlankLines());
+            json.writeNumberField("commentLines", metrics.getCommentLines());
+            json.writeNumberField("importCount", metrics.getImportCount());
+            json.writeNumberField("variableCount", metrics.getVariableCount());
+            json.writeNumberField("inheritanceCount", metrics.getInheritanceCount());
+            json.writeNumberField("encapsulationCount", metrics.getEncapsulationCount());
+            json.writeNumberField("overrideMethods", metrics.getOverrideMethods());
+            json.writeNumberField("overloadedMethods", metrics.getOverloadedMethods());
+            json.writeNumberField("cyclomaticComplexity", metrics.getCyclomaticComplexity());
+            json.writeNumberField("complexityPercentage", metrics.getComplexityPercentage());
+            json.writeNumberField("tryCount", metrics.getTryCount());
+            json.writeNumberField("catchCount", metrics.getCatchCount());
+            json.writeNumberField("finallyCount", metrics.getFinallyCount());
+            json.writeNumberField("vowels", metrics.getVowels());
+            json.writeNumberField("consonants", metrics.getConsonants());
+            json.writeNumberField("specialChars", metrics.getSpecialChars());
+            json.writeNumberField("totalCharacters", metrics.getTotalCharacters());
+            json.writeEndObject();
+
+            json.writeNumberField("timestamp", System.currentTimeMillis());
+            json.writeEndObject();
+        } catch (IOException e) {
             System.err.println("Failed to create JSON data: " + e.getMessage());
             // Continue without JSON data
+            return null;
+        } finally {
+            analyzerMetrics.stopJsonBuild(sample);
+        }
+        return out.toString();
+    }
+
+    private static void writeNullableNumber(JsonGenerator json, String name, Integer value) throws IOException {
+        if (value == null) {
+            json.writeNullField(name);
+        } else {
+            json.writeNumberField(name, value.intValue());
         }
-        
-        return codeAnalysisRepository.save(analysis);
     }
 
     /**
      * Get all analyses for a user
      */
     public List<CodeAnalysis> getAnalysesByUser(Integer userId) {
-        return codeAnalysisRepository.findByUserId(userId);
+        return queryCache.get(AnalysisQueryCache.userKey(userId), () -> codeAnalysisRepository.findByUserId(userId));
     }
 
     /**
      * Get all analyses for a project
      */
     public List<CodeAnalysis> getAnalysesByProject(Integer projectId) {
-        return codeAnalysisRepository.findByProjectId(projectId);
+        return queryCache.get(AnalysisQueryCache.projectKey(projectId), () -> codeAnalysisRepository.findByProjectId(projectId));
+    }
+
+    /**
+     * Get a user's analyses within one project
+     */
+    public List<CodeAnalysis> getAnalysesByUserAndProject(Integer userId, Integer projectId) {
+        return queryCache.get(AnalysisQueryCache.userProjectKey(userId, projectId),
+                () -> codeAnalysisRepository.findByUserIdAndProjectId(userId, projectId));
+    }
+
+    /**
+     * Get one page of a user's analyses after the given id, without the JSON data
+     */
+    public List<CodeAnalysisSummary> getAnalysisPageByUser(Integer userId, long afterId, int limit) {
+        return codeAnalysisRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Get one page of a project's analyses after the given id, without the JSON data
+     */
+    public List<CodeAnalysisSummary> getAnalysisPageByProject(Integer projectId, long afterId, int limit) {
+        return codeAnalysisRepository.findByProjectIdAndIdGreaterThanOrderByIdAsc(projectId, afterId, PageRequest.of(0, limit));
     }
 }
@@ -1,16 +1,76 @@
 package com.example.demo.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends OTP mails from a background worker so registration never waits on SMTP.
+ *
+ * Messages wait in a bounded queue; the worker drains whatever has piled up and hands it
+ * to the sender as one batch, which JavaMailSender delivers over a single SMTP connection.
+ * Failed messages are retried with exponential backoff and end up on the console fallback.
+ */
 @Service
 public class EmailService {
     
-    @Autowired(required = false)
-    private JavaMailSender mailSender;
+    /**
+     * A queued mail together with what the console fallback prints for it
+     */
+    private static class OtpMail {
+        final String toEmail;
+        final String otp;
+        final SimpleMailMessage message;
+        
+        OtpMail(String toEmail, String otp, SimpleMailMessage message) {
+            this.toEmail = toEmail;
+            this.otp = otp;
+            this.message = message;
+        }
+    }
+    
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<OtpMail> queue;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    
+    private final Thread worker;
+    private volatile boolean running = true;
+    
+    public EmailService(Optional<JavaMailSender> mailSender,
+                        @Value("${mail.dispatch.queue-capacity:1000}") int queueCapacity,
+                        @Value("${mail.dispatch.batch-size:50}") int batchSize,
+                        @Value("${mail.dispatch.max-attempts:4}") int maxAttempts,
+                        @Value("${mail.dispatch.initial-backoff-ms:500}") long initialBackoffMs) {
+        this.mailSender = mailSender.orElse(null);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        
+        this.worker = new Thread(this::dispatchLoop, "mail-dispatch");
+        worker.setDaemon(true);
+        if (this.mailSender != null) {
+            worker.start();
+        }
+    }
     
+    /**
+     * Queue the OTP mail and return immediately
+     */
     public void sendOTP(String toEmail, String otp) {
         if (mailSender == null) {
             // If email is not configured, print OTP to console for testing
@@ -21,19 +81,116 @@ public class EmailService {
             return;
         }
         
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(toEmail);
-            message.setSubject("Your OTP for Registration");
-            message.setText("Your OTP for registration is: " + otp + "\n\nThis OTP will expire in 10 minutes.");
-            mailSender.send(message);
-        } catch (Exception e) {
-            // Fallback to console if email fails
-            System.out.println("=== OTP EMAIL (Email sending failed) ===");
-            System.out.println("To: " + toEmail);
-            System.out.println("OTP: " + otp);
-            System.out.println("==========================================");
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(toEmail);
+        message.setSubject("Your OTP for Registration");
+        message.setText("Your OTP for registration is: " + otp + "\n\nThis OTP will expire in 10 minutes.");
+        
+        OtpMail mail = new OtpMail(toEmail, otp, message);
+        if (!running || !queue.offer(mail)) {
+            System.err.println("Mail queue full, OTP for " + toEmail + " not sent by email");
+            printFallback(mail);
+        }
+    }
+    
+    public int getQueuedCount() {
+        return queue.size();
+    }
+    
+    private void dispatchLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                OtpMail first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Everything that arrived meanwhile rides on the same connection
+                List<OtpMail> batch = new ArrayList<>(Math.min(batchSize, queue.size() + 1));
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Interrupted at shutdown: whatever is left still reaches the console
+        OtpMail left;
+        while ((left = queue.poll()) != null) {
+            printFallback(left);
+        }
+    }
+    
+    private void deliver(List<OtpMail> batch) throws InterruptedException {
+        List<OtpMail> pending = batch;
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                SimpleMailMessage[] messages = new SimpleMailMessage[pending.size()];
+                for (int i = 0; i < messages.length; i++) {
+                    messages[i] = pending.get(i).message;
+                }
+                mailSender.send(messages);
+                return;
+            } catch (MailSendException e) {
+                // Only the messages the server refused need another try
+                List<OtpMail> failed = failedMessages(e, pending);
+                pending = failed.isEmpty() ? pending : failed;
+                if (attempt >= maxAttempts) {
+                    fail(pending, e);
+                    return;
+                }
+            } catch (MailException e) {
+                if (attempt >= maxAttempts) {
+                    fail(pending, e);
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                fail(pending, e);
+                throw e;
+            }
+            backoff *= 2;
+        }
+    }
+    
+    private static List<OtpMail> failedMessages(MailSendException e, List<OtpMail> sent) {
+        Map<Object, Exception> failed = e.getFailedMessages();
+        List<OtpMail> result = new ArrayList<>(failed.size());
+        for (OtpMail mail : sent) {
+            if (failed.containsKey(mail.message)) {
+                result.add(mail);
+            }
+        }
+        return result;
+    }
+    
+    private void fail(List<OtpMail> mails, Exception e) {
+        System.err.println("Giving up on " + mails.size() + " OTP mail(s) after " + maxAttempts + " attempts: " + e.getMessage());
+        for (OtpMail mail : mails) {
+            printFallback(mail);
+        }
+    }
+    
+    private static void printFallback(OtpMail mail) {
+        // Fallback to console if email fails
+        System.out.println("=== OTP EMAIL (Email sending failed) ===");
+        System.out.println("To: " + mail.toEmail);
+        System.out.println("OTP: " + mail.otp);
+        System.out.println("==========================================");
+    }
+    
+    /**
+     * Stop accepting mail and give the worker a moment to flush the queue
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (worker.isAlive()) {
+            worker.join(10_000);
+            worker.interrupt();
         }
     }
 }
-
@@ -1,21 +1,83 @@
 package com.example.demo.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * One-time passwords keyed by email, held in a store with a hard capacity.
+ *
+ * Every OTP lives for the same fixed time, so issue order is expiry order: a FIFO of
+ * issued entries doubles as the expiry wheel. A background sweep drops expired entries
+ * from its head, and a flood of registrations evicts the oldest entries once the
+ * capacity is reached, keeping memory flat.
+ */
 @Service
 public class OTPService {
     
-    private final Map<String, OTPData> otpStore = new ConcurrentHashMap<>();
-    private final Random random = new Random();
     private static final long OTP_EXPIRY_TIME = 10 * 60 * 1000; // 10 minutes
     
+    private final Map<String, OTPData> otpStore = new ConcurrentHashMap<>();
+    private final Queue<OTPData> issued = new ConcurrentLinkedQueue<>();  // oldest first, may hold replaced entries
+    private final AtomicInteger issuedCount = new AtomicInteger();
+    private final int maxEntries;
+    
+    // SecureRandom for unguessable codes; one generator per thread so sign-ups do not contend on a shared lock
+    private final ThreadLocal<SecureRandom> random = ThreadLocal.withInitial(OTPService::newRandom);
+    
+    private final ScheduledExecutorService sweeper;
+    private final Counter expiredEvictions;
+    private final Counter capacityEvictions;
+    
+    public OTPService(MeterRegistry registry,
+                      @Value("${otp.store.max-entries:100000}") int maxEntries,
+                      @Value("${otp.store.sweep-interval-seconds:30}") long sweepIntervalSeconds) {
+        this.maxEntries = maxEntries;
+        
+        Gauge.builder("otp.store.size", otpStore, Map::size)
+                .description("Outstanding one-time passwords")
+                .register(registry);
+        this.expiredEvictions = Counter.builder("otp.store.evictions")
+                .description("One-time passwords removed before being verified")
+                .tag("reason", "expired")
+                .register(registry);
+        this.capacityEvictions = Counter.builder("otp.store.evictions")
+                .description("One-time passwords removed before being verified")
+                .tag("reason", "capacity")
+                .register(registry);
+        
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepExpired, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+    
     public String generateOTP(String email) {
-        String otp = String.format("%06d", random.nextInt(1000000));
+        String otp = String.format("%06d", random.get().nextInt(1000000));
         long expiryTime = System.currentTimeMillis() + OTP_EXPIRY_TIME;
-        otpStore.put(email, new OTPData(otp, expiryTime));
+        OTPData data = new OTPData(email, otp, expiryTime);
+        
+        otpStore.put(email, data);
+        issued.add(data);
+        if (issuedCount.incrementAndGet() > maxEntries) {
+            evictOldest();
+        }
         return otp;
     }
     
@@ -26,13 +88,13 @@ public class OTPService {
         }
         
         if (System.currentTimeMillis() > data.expiryTime) {
-            otpStore.remove(email);
+            otpStore.remove(email, data);
             return false;
         }
         
         if (data.otp.equals(otp)) {
-            otpStore.remove(email);
-            return true;
+            // Only the caller that actually removes the entry gets to use it
+            return otpStore.remove(email, data);
         }
         
         return false;
@@ -42,14 +104,67 @@ public class OTPService {
         otpStore.remove(email);
     }
     
+    public int size() {
+        return otpStore.size();
+    }
+    
+    /**
+     * Drop expired entries from the head of the issue queue
+     */
+    void sweepExpired() {
+        long now = System.currentTimeMillis();
+        OTPData head;
+        while ((head = issued.peek()) != null && head.expiryTime < now) {
+            if (issued.remove(head)) {
+                issuedCount.decrementAndGet();
+                if (otpStore.remove(head.email, head)) {
+                    expiredEvictions.increment();
+                }
+            }
+        }
+    }
+    
+    private void evictOldest() {
+        // Queued entries are a superset of the live ones, so bounding the queue bounds the map
+        while (issuedCount.get() > maxEntries) {
+            OTPData oldest = issued.poll();
+            if (oldest == null) {
+                return;
+            }
+            issuedCount.decrementAndGet();
+            if (otpStore.remove(oldest.email, oldest)) {
+                if (oldest.expiryTime < System.currentTimeMillis()) {
+                    expiredEvictions.increment();
+                } else {
+                    capacityEvictions.increment();
+                }
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+    
+    private static SecureRandom newRandom() {
+        try {
+            // DRBG instances are independent, unlike NativePRNG which shares one locked source
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+    
     private static class OTPData {
-        String otp;
-        long expiryTime;
+        final String email;
+        final String otp;
+        final long expiryTime;
         
-        OTPData(String otp, long expiryTime) {
+        OTPData(String email, String otp, long expiryTime) {
+            this.email = email;
             this.otp = otp;
             this.expiryTime = expiryTime;
         }
     }
 }
-
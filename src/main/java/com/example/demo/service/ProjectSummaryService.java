@@ -0,0 +1,52 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FileMetrics;
+import com.example.demo.model.ProjectSummary;
+import com.example.demo.repository.ProjectSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class ProjectSummaryService {
+
+    @Autowired
+    private ProjectSummaryRepository projectSummaryRepository;
+
+    /**
+     * Add newly saved files to the project's running totals (one upsert per call)
+     */
+    public void record(Integer projectId, List<FileMetrics> metrics) {
+        if (projectId == null || metrics.isEmpty()) return;
+
+        long totalLines = 0, cyclomaticSum = 0, tryCount = 0, catchCount = 0, finallyCount = 0;
+        int maxCyclomatic = 0;
+        for (FileMetrics m : metrics) {
+            totalLines += m.getTotalLines();
+            cyclomaticSum += m.getCyclomaticComplexity();
+            maxCyclomatic = Math.max(maxCyclomatic, m.getCyclomaticComplexity());
+            tryCount += m.getTryCount();
+            catchCount += m.getCatchCount();
+            finallyCount += m.getFinallyCount();
+        }
+
+        projectSummaryRepository.addToSummary(projectId, metrics.size(), totalLines, cyclomaticSum, maxCyclomatic,
+                tryCount, catchCount, finallyCount);
+    }
+
+    public Optional<ProjectSummary> getSummary(Integer projectId) {
+        return projectSummaryRepository.findById(projectId);
+    }
+
+    /**
+     * Recompute the summary from code_analysis, e.g. for projects saved before the summary existed
+     */
+    @Transactional
+    public Optional<ProjectSummary> rebuild(Integer projectId) {
+        projectSummaryRepository.rebuildSummary(projectId);
+        return projectSummaryRepository.findById(projectId);
+    }
+}
@@ -0,0 +1,532 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FileMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Single-pass scanner that computes {@link FileMetrics} one character at a time.
+ *
+ * Produces exactly the counts of the original line-splitting analysis
+ * (trimmed lines, {@code contains} keyword checks and the two line regexes)
+ * without splitting the content, copying it or allocating anything per line.
+ * A scanner is not thread-safe; use one instance per file.
+ */
+public final class SourceScanner {
+
+    // Keyword bits reported by the matcher, one per pattern in KEYWORDS
+    private static final int KW_STRING = 1, KW_INT = 1 << 1, KW_DOUBLE = 1 << 2, KW_FLOAT = 1 << 3,
+            KW_BOOLEAN = 1 << 4, KW_CHAR = 1 << 5, KW_LONG = 1 << 6, KW_VAR = 1 << 7,
+            KW_EXTENDS = 1 << 8, KW_IMPLEMENTS = 1 << 9,
+            KW_PRIVATE = 1 << 10, KW_PUBLIC = 1 << 11, KW_PROTECTED = 1 << 12,
+            KW_OVERRIDE = 1 << 13,
+            KW_IF = 1 << 14, KW_FOR = 1 << 15, KW_WHILE = 1 << 16, KW_CASE = 1 << 17, KW_AND = 1 << 18, KW_OR = 1 << 19,
+            KW_TRY = 1 << 20, KW_CATCH = 1 << 21, KW_FINALLY = 1 << 22;
+
+    private static final String[] KEYWORDS = {
+            "String", "int", "double", "float", "boolean", "char", "long", "var",
+            "extends", "implements",
+            "private", "public", "protected",
+            "@Override",
+            "if", "for", "while", "case", "&&", "||",
+            "try", "catch", "finally"
+    };
+
+    private static final int TYPE_MASK = KW_STRING | KW_INT | KW_DOUBLE | KW_FLOAT | KW_BOOLEAN | KW_CHAR | KW_LONG | KW_VAR;
+    private static final int INHERITANCE_MASK = KW_EXTENDS | KW_IMPLEMENTS;
+    private static final int ENCAPSULATION_MASK = KW_PRIVATE | KW_PUBLIC | KW_PROTECTED;
+    private static final int BRANCH_MASK = KW_IF | KW_FOR | KW_WHILE | KW_CASE | KW_AND | KW_OR;
+
+    private static final String IMPORT = "import";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // The time budget and interruption are checked once per this many chars
+    private static final long BUDGET_CHECK_MASK = (1 << 16) - 1;
+
+    // Per-ASCII-char class used for the vowel/consonant/special counts
+    private static final byte CH_NONE = 0, CH_VOWEL = 1, CH_CONSONANT = 2, CH_SPECIAL = 3;
+    private static final byte[] ASCII_CLASS = new byte[128];
+
+    // Aho-Corasick automaton over the ASCII keywords: GOTO[state * 128 + c] and OUTPUT[state]
+    private static final int[] GOTO;
+    private static final int[] OUTPUT;
+
+    static {
+        for (int c = 0; c < 128; c++) {
+            ASCII_CLASS[c] = classifySlow((char) c);
+        }
+
+        int maxStates = 1;
+        for (String keyword : KEYWORDS) maxStates += keyword.length();
+
+        int[] trie = new int[maxStates * 128];
+        int[] output = new int[maxStates];
+        java.util.Arrays.fill(trie, -1);
+        int states = 1;
+        for (int k = 0; k < KEYWORDS.length; k++) {
+            int state = 0;
+            for (char c : KEYWORDS[k].toCharArray()) {
+                int slot = state * 128 + c;
+                if (trie[slot] < 0) trie[slot] = states++;
+                state = trie[slot];
+            }
+            output[state] |= 1 << k;
+        }
+
+        // Breadth-first fill of failure transitions so every (state, char) has a direct edge
+        int[] fail = new int[states];
+        int[] queue = new int[states];
+        int head = 0, tail = 0;
+        for (int c = 0; c < 128; c++) {
+            int next = trie[c];
+            if (next < 0) {
+                trie[c] = 0;
+            } else {
+                fail[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            output[state] |= output[fail[state]];
+            for (int c = 0; c < 128; c++) {
+                int slot = state * 128 + c;
+                int next = trie[slot];
+                if (next < 0) {
+                    trie[slot] = trie[fail[state] * 128 + c];
+                } else {
+                    fail[next] = trie[fail[state] * 128 + c];
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        GOTO = java.util.Arrays.copyOf(trie, states * 128);
+        OUTPUT = java.util.Arrays.copyOf(output, states);
+    }
+
+    // File totals
+    private int totalLines;
+    private int blankLines;
+    private int commentLines;
+    private int importCount;
+    private int variableCount;
+    private int inheritanceCount;
+    private int encapsulationCount;
+    private int overridingCount;
+    private int overloadingCount;
+    private int cyclomatic = 1;
+    private int tryCount, catchCount, finallyCount;
+    private int vowels, consonants, special;
+    private long totalCharacters;
+
+    // Empty lines are only counted once a later non-empty line shows they are not trailing
+    private int pendingEmptyLines;
+
+    // Current line state
+    private int lineLength;
+    private int keywordState;
+    private int lineKeywords;
+    private boolean significantSeen;  // seen a char that String.trim() keeps
+    private boolean nonBlank;
+    private boolean pendingNonBlank;  // control char that only counts if followed by a kept char
+    private boolean terminator;       // line terminator inside the trimmed line, which "." never matches
+    private boolean pendingTerminator;
+    private int headLength;           // chars seen since the first kept char, capped
+    private char first, second;
+    private int importMatched;        // chars of "import" matched at the start, -1 once broken
+    private char previous, lastSignificant, beforeLastSignificant;
+    private boolean typeSeen, assignmentAfterType;
+    private int parenStage;           // progress through "(", ")", "{"
+
+    // Limits: past them the scan degrades to counting only (or stops, for the time budget)
+    private final int maxLineLength;
+    private final int maxLines;
+    private final boolean budgeted;
+    private long deadline;            // System.nanoTime() value, pushed back by time spent blocked on input
+    private boolean lineDegraded;     // current line is over maxLineLength; rules see only its prefix
+    private boolean fileDegraded;     // past maxLines; remaining lines are only counted
+    private boolean stopped;          // budget exhausted or thread interrupted; further input is ignored
+    private boolean degraded;         // some line was only counted
+
+    // UTF-8 input: ASCII bytes are scanned as they are and only non-ASCII runs are decoded
+    private CharsetDecoder utf8;
+    private CharBuffer decoded;
+    private final byte[] carry = new byte[4];  // incomplete sequence at the end of the previous chunk
+    private int carryLength;
+
+    public SourceScanner() {
+        this(Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Scanner with limits. Lines longer than maxLineLength have their rules judged on the first
+     * maxLineLength chars; after maxLines lines the rest is only counted. Both give a DEGRADED result.
+     * Once the budget (nanoseconds, 0 for none) runs out or the thread is interrupted,
+     * the rest of the input is ignored and the result is PARTIAL. The budget covers scanning
+     * only: time spent waiting in read() on a stream or reader does not count against it.
+     */
+    public SourceScanner(int maxLineLength, int maxLines, long budgetNanos) {
+        this.maxLineLength = maxLineLength > 0 ? maxLineLength : Integer.MAX_VALUE;
+        this.maxLines = maxLines > 0 ? maxLines : Integer.MAX_VALUE;
+        this.budgeted = budgetNanos > 0;
+        this.deadline = budgeted ? System.nanoTime() + budgetNanos : 0;
+        resetLine();
+    }
+
+    /**
+     * Scan a whole string.
+     */
+    public SourceScanner accept(CharSequence content) {
+        for (int i = 0, n = content.length(); i < n; i++) {
+            accept(content.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Scan a slice of a char buffer.
+     */
+    public SourceScanner accept(char[] buffer, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            accept(buffer[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Scan everything a reader produces through one fixed-size buffer.
+     */
+    public SourceScanner accept(Reader reader) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        while (true) {
+            long start = budgeted ? System.nanoTime() : 0;
+            int read = reader.read(buffer, 0, buffer.length);
+            if (budgeted) deadline += System.nanoTime() - start;
+            if (read == -1) return this;
+            accept(buffer, 0, read);
+        }
+    }
+
+    /**
+     * Scan a slice of UTF-8 bytes; a sequence split across calls is completed by the next one.
+     * Counts match decoding with an InputStreamReader, malformed input included.
+     */
+    public SourceScanner accept(byte[] buffer, int offset, int length) {
+        int i = offset, end = offset + length;
+        while (i < end) {
+            byte b = buffer[i];
+            if (b >= 0 && carryLength == 0) {
+                // ASCII fast path: the byte is the char
+                accept((char) b);
+                i++;
+                continue;
+            }
+            // An ASCII byte can never continue a sequence, so each non-ASCII run decodes on its own
+            int runEnd = i;
+            while (runEnd < end && buffer[runEnd] < 0) runEnd++;
+            decodeRun(ByteBuffer.wrap(buffer, i, runEnd - i), runEnd < end);
+            i = runEnd;
+        }
+        return this;
+    }
+
+    /**
+     * Scan the remaining UTF-8 bytes of a buffer in place, e.g. a mapped file window, without copying
+     * them to the heap. Sequences split across calls are completed by the next one, as for byte arrays.
+     */
+    public SourceScanner accept(ByteBuffer buffer) {
+        int i = buffer.position(), end = buffer.limit();
+        while (i < end) {
+            byte b = buffer.get(i);
+            if (b >= 0 && carryLength == 0) {
+                accept((char) b);
+                i++;
+                continue;
+            }
+            int runEnd = i;
+            while (runEnd < end && buffer.get(runEnd) < 0) runEnd++;
+            decodeRun(buffer.duplicate().limit(runEnd).position(i), runEnd < end);
+            i = runEnd;
+        }
+        buffer.position(end);
+        return this;
+    }
+
+    /**
+     * Scan everything a UTF-8 stream produces through one fixed-size buffer.
+     */
+    public SourceScanner accept(InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (true) {
+            long start = budgeted ? System.nanoTime() : 0;
+            int read = in.read(buffer, 0, buffer.length);
+            if (budgeted) deadline += System.nanoTime() - start;  // a slow upload is not a slow scan
+            if (read == -1) return this;
+            accept(buffer, 0, read);
+        }
+    }
+
+    private void decodeRun(ByteBuffer run, boolean complete) {
+        if (utf8 == null) {
+            utf8 = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            decoded = CharBuffer.allocate(BUFFER_SIZE);
+        }
+
+        ByteBuffer in;
+        if (carryLength > 0) {
+            byte[] joined = new byte[carryLength + run.remaining()];
+            System.arraycopy(carry, 0, joined, 0, carryLength);
+            run.get(joined, carryLength, run.remaining());
+            in = ByteBuffer.wrap(joined);
+            carryLength = 0;
+        } else {
+            in = run;
+        }
+
+        CoderResult result;
+        do {
+            result = utf8.decode(in, decoded, complete);
+            drainDecoded();
+        } while (result.isOverflow());
+
+        if (complete) {
+            while (utf8.flush(decoded).isOverflow()) drainDecoded();
+            drainDecoded();
+            utf8.reset();
+        } else {
+            // At most three bytes of a sequence the next chunk will finish
+            carryLength = in.remaining();
+            in.get(carry, 0, carryLength);
+        }
+    }
+
+    private void drainDecoded() {
+        decoded.flip();
+        while (decoded.hasRemaining()) accept(decoded.get());
+        decoded.clear();
+    }
+
+    /**
+     * Scan a single UTF-16 char.
+     */
+    public void accept(char c) {
+        if (stopped) return;
+        if ((++totalCharacters & BUDGET_CHECK_MASK) == 0) checkBudget();
+        countCharacter(c);
+
+        if (c == '\n') {
+            endLine();
+            return;
+        }
+
+        lineLength++;
+
+        if (lineLength > maxLineLength) lineDegraded = true;
+        if (lineDegraded || fileDegraded) {
+            // Degraded: linear counting only, no keyword or line-rule state
+            if (c > ' ' && !Character.isWhitespace(c)) nonBlank = true;
+            return;
+        }
+
+        if (c <= ' ') {
+            // String.trim() drops these at both ends, so they only matter between kept chars
+            if (significantSeen) {
+                if (c == '\r') pendingTerminator = true;
+                else if (!Character.isWhitespace(c)) pendingNonBlank = true;
+                advanceHead(c);
+            }
+            keywordState = 0;
+            previous = c;
+            return;
+        }
+
+        if (pendingNonBlank) nonBlank = true;
+        if (pendingTerminator) terminator = true;
+        pendingNonBlank = false;
+        pendingTerminator = false;
+
+        if (!significantSeen) {
+            significantSeen = true;
+            first = c;
+            headLength = 0;
+            importMatched = 0;
+        }
+        advanceHead(c);
+
+        if (!Character.isWhitespace(c)) nonBlank = true;
+        if (c == '\u0085' || c == '\u2028' || c == '\u2029') terminator = true;
+
+        beforeLastSignificant = previous;
+        lastSignificant = c;
+        previous = c;
+
+        if (c < 128) {
+            keywordState = GOTO[keywordState * 128 + c];
+            int matched = OUTPUT[keywordState];
+            if (matched != 0) {
+                lineKeywords |= matched;
+                if ((matched & TYPE_MASK) != 0) typeSeen = true;
+            }
+        } else {
+            keywordState = 0;
+        }
+
+        if (c == '=' && typeSeen) assignmentAfterType = true;
+
+        if (parenStage == 0 && c == '(') parenStage = 1;
+        else if (parenStage == 1 && c == ')') parenStage = 2;
+        else if (parenStage == 2 && c == '{') parenStage = 3;
+    }
+
+    /**
+     * Finish the scan and build the metrics for the file.
+     */
+    public FileMetrics finish(String fileName) {
+        if (carryLength > 0) {
+            // Stream ended inside a UTF-8 sequence
+            decodeRun(ByteBuffer.allocate(0), true);
+        }
+        if (totalCharacters == 0) {
+            // "".split("\n") yields a single empty line
+            totalLines = 1;
+            blankLines = 1;
+        } else if (lineLength > 0) {
+            endLine();
+        }
+        // Trailing empty lines are dropped, as String.split does
+
+        double complexityPercentage = ((double) cyclomatic / totalLines) * 100;
+
+        FileMetrics.Status status = stopped ? FileMetrics.Status.PARTIAL
+                : degraded ? FileMetrics.Status.DEGRADED
+                : FileMetrics.Status.COMPLETE;
+
+        return new FileMetrics(
+                fileName,
+                totalLines,
+                blankLines,
+                commentLines,
+                importCount,
+                variableCount,
+                inheritanceCount,
+                encapsulationCount,
+                overridingCount,
+                overloadingCount,
+                cyclomatic,
+                complexityPercentage,
+                tryCount,
+                catchCount,
+                finallyCount,
+                vowels,
+                consonants,
+                special,
+                (int) totalCharacters
+        ).withStatus(status);
+    }
+
+    private void checkBudget() {
+        if (Thread.currentThread().isInterrupted() || (budgeted && System.nanoTime() - deadline > 0)) {
+            stopped = true;
+        }
+    }
+
+    private void advanceHead(char c) {
+        if (importMatched >= 0 && importMatched < IMPORT.length()) {
+            importMatched = IMPORT.charAt(importMatched) == c ? importMatched + 1 : -1;
+        }
+        if (headLength == 1) second = c;
+        if (headLength < 2) headLength++;
+    }
+
+    private void countCharacter(char c) {
+        byte cls = c < 128 ? ASCII_CLASS[c] : classifySlow(c);
+        switch (cls) {
+            case CH_VOWEL: vowels++; break;
+            case CH_CONSONANT: consonants++; break;
+            case CH_SPECIAL: special++; break;
+            default: break;
+        }
+    }
+
+    private static byte classifySlow(char c) {
+        if (Character.isAlphabetic(c)) {
+            return "AEIOUaeiou".indexOf(c) >= 0 ? CH_VOWEL : CH_CONSONANT;
+        }
+        if (!Character.isWhitespace(c) && !Character.isDigit(c)) {
+            return CH_SPECIAL;
+        }
+        return CH_NONE;
+    }
+
+    private void endLine() {
+        if (lineLength == 0) {
+            pendingEmptyLines++;
+            resetLine();
+            return;
+        }
+
+        totalLines += pendingEmptyLines + 1;
+        blankLines += pendingEmptyLines;
+        pendingEmptyLines = 0;
+
+        if (!nonBlank) blankLines++;
+
+        if (lineDegraded || fileDegraded) degraded = true;
+        if (totalLines >= maxLines) fileDegraded = true;
+
+        if (significantSeen) {
+            boolean startsComment = first == '/' && (second == '/' || second == '*');
+            boolean endsComment = lastSignificant == '/' && beforeLastSignificant == '*';
+            if (startsComment || endsComment) commentLines++;
+
+            if (importMatched == IMPORT.length()) importCount++;
+
+            if (!terminator && lastSignificant == ';' && assignmentAfterType) variableCount++;
+            if (!terminator && parenStage == 3) overloadingCount++;
+
+            if ((lineKeywords & INHERITANCE_MASK) != 0) inheritanceCount++;
+            if ((lineKeywords & ENCAPSULATION_MASK) != 0) encapsulationCount++;
+            if ((lineKeywords & KW_OVERRIDE) != 0) overridingCount++;
+            if ((lineKeywords & BRANCH_MASK) != 0) cyclomatic++;
+            if ((lineKeywords & KW_TRY) != 0) tryCount++;
+            if ((lineKeywords & KW_CATCH) != 0) catchCount++;
+            if ((lineKeywords & KW_FINALLY) != 0) finallyCount++;
+        }
+
+        resetLine();
+    }
+
+    private void resetLine() {
+        lineLength = 0;
+        keywordState = 0;
+        lineKeywords = 0;
+        significantSeen = false;
+        nonBlank = false;
+        pendingNonBlank = false;
+        terminator = false;
+        pendingTerminator = false;
+        headLength = 0;
+        first = 0;
+        second = 0;
+        importMatched = -1;
+        previous = 0;
+        lastSignificant = 0;
+        beforeLastSignificant = 0;
+        typeSeen = false;
+        assignmentAfterType = false;
+        parenStage = 0;
+        lineDegraded = false;
+    }
+}
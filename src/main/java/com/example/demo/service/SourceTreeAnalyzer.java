@@ -0,0 +1,167 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FileMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Analyzes every .java file below a directory without going through HTTP.
+ * Directories are listed and files scanned as fork/join tasks, and each file's
+ * UTF-8 bytes go straight from a memory-mapped buffer into a {@link SourceScanner}.
+ */
+public final class SourceTreeAnalyzer {
+
+    // Below this size a plain read is cheaper than setting up a mapping
+    private static final long MAP_THRESHOLD = 16 * 1024;
+
+    // Per-thread read buffer for small files; mapped files are scanned in place
+    private static final ThreadLocal<byte[]> CHUNK = ThreadLocal.withInitial(() -> new byte[(int) MAP_THRESHOLD]);
+
+    private final int parallelism;
+
+    public SourceTreeAnalyzer(int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Analyze the tree; the sink is called from worker threads, once per file, in no particular order.
+     * Files that cannot be read are reported to onError and skipped.
+     */
+    public void analyze(Path root, Consumer<FileMetrics> sink, Consumer<String> onError) {
+        Walk walk = new Walk(root, sink, onError);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(walk, root));
+        } finally {
+            pool.shutdown();
+        }
+        if (walk.failure != null) {
+            // The sink failed (e.g. the output cannot be written): the run is aborted, not just that file
+            throw walk.failure;
+        }
+    }
+
+    /**
+     * Analyze one file, named by its path relative to the scanned root
+     */
+    public static FileMetrics analyzeFile(Path file, String fileName) throws IOException {
+        SourceScanner scanner = new SourceScanner();
+        // Content key as uploads compute it, so rows saved with --format=db work with incremental uploads
+        MessageDigest digest = AnalysisCache.newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                byte[] chunk = CHUNK.get();
+                ByteBuffer bytes = ByteBuffer.wrap(chunk, 0, (int) size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // read until full or end of file
+                }
+                digest.update(chunk, 0, bytes.position());
+                scanner.accept(chunk, 0, bytes.position());
+            } else {
+                // Map in windows so even files beyond 2GB work; the scanner carries sequences split between windows
+                for (long position = 0; position < size; ) {
+                    long window = Math.min(Integer.MAX_VALUE, size - position);
+                    ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+                    digest.update(mapped.duplicate());
+                    scanner.accept(mapped);
+                    position += window;
+                }
+            }
+        }
+        return scanner.finish(fileName).withContentHash(AnalysisCache.keyOf(digest));
+    }
+
+    private static boolean isJavaSource(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".java");
+    }
+
+    /**
+     * State shared by all tasks of one run; a sink failure stops the remaining files
+     */
+    private static final class Walk {
+        final Path root;
+        final Consumer<FileMetrics> sink;
+        final Consumer<String> onError;
+        volatile RuntimeException failure;
+
+        Walk(Path root, Consumer<FileMetrics> sink, Consumer<String> onError) {
+            this.root = root;
+            this.sink = sink;
+            this.onError = onError;
+        }
+    }
+
+    private static final class DirectoryTask extends RecursiveAction {
+
+        private final Walk walk;
+        private final Path directory;
+
+        DirectoryTask(Walk walk, Path directory) {
+            this.walk = walk;
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            if (walk.failure != null) return;
+            List<RecursiveAction> tasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    // Symbolic links are not followed, so link cycles cannot loop the walk
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        tasks.add(new DirectoryTask(walk, entry));
+                    } else if (Files.isRegularFile(entry, LinkOption.NOFOLLOW_LINKS) && isJavaSource(entry)) {
+                        tasks.add(new FileTask(walk, entry));
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                walk.onError.accept(walk.root.relativize(directory) + ": " + e.getMessage());
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    private static final class FileTask extends RecursiveAction {
+
+        private final Walk walk;
+        private final Path file;
+
+        FileTask(Walk walk, Path file) {
+            this.walk = walk;
+            this.file = file;
+        }
+
+        @Override
+        protected void compute() {
+            if (walk.failure != null) return;
+            String fileName = walk.root.relativize(file).toString().replace('\\', '/');
+            FileMetrics metrics;
+            try {
+                metrics = analyzeFile(file, fileName);
+            } catch (IOException | RuntimeException e) {
+                walk.onError.accept(fileName + ": " + e.getMessage());
+                return;
+            }
+            try {
+                walk.sink.accept(metrics);
+            } catch (RuntimeException e) {
+                walk.failure = e;
+            }
+        }
+    }
+}
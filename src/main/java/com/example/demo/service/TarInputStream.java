@@ -0,0 +1,221 @@
+package com.example.demo.service;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal streaming tar reader in the style of {@link java.util.zip.ZipInputStream}:
+ * {@link #getNextEntry()} positions the stream on the next regular file and
+ * {@code read} returns that file's bytes until it ends.
+ *
+ * Understands ustar, GNU long names and pax path records, which covers
+ * archives written by GNU tar, bsdtar and Python's tarfile.
+ */
+class TarInputStream extends FilterInputStream {
+
+    private static final int BLOCK = 512;
+
+    private final byte[] header = new byte[BLOCK];
+    private long remaining;  // bytes left in the current entry
+    private long padding;    // bytes after the entry up to the next block boundary
+    private String entryName;
+
+    TarInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Advance to the next regular file, or return null at the end of the archive
+     */
+    String getNextEntry() throws IOException {
+        skipCurrentEntry();
+
+        String longName = null;
+        while (true) {
+            if (!readBlock(header)) return null;
+            if (isZeroBlock(header)) return null;
+
+            char type = (char) header[156];
+            long size = parseSize(header, 124, 12);
+
+            if (type == 'L') {
+                // GNU long name: the entry body is the name of the following entry
+                longName = trimNul(readBody(size));
+                continue;
+            }
+            if (type == 'x') {
+                String path = parsePaxPath(readBody(size));
+                if (path != null) longName = path;
+                continue;
+            }
+
+            remaining = size;
+            padding = (BLOCK - (size % BLOCK)) % BLOCK;
+
+            if (type != '0' && type != '\0' && type != '7') {
+                // Directories, links, global headers and the like carry no file content
+                skipCurrentEntry();
+                longName = null;
+                continue;
+            }
+
+            entryName = longName != null ? longName : headerName();
+            return entryName;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) return -1;
+        int b = in.read();
+        if (b < 0) throw new EOFException("Truncated tar entry " + entryName);
+        remaining--;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (remaining <= 0) return -1;
+        int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+        if (read < 0) throw new EOFException("Truncated tar entry " + entryName);
+        remaining -= read;
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void skipCurrentEntry() throws IOException {
+        skipFully(remaining + padding);
+        remaining = 0;
+        padding = 0;
+    }
+
+    private void skipFully(long count) throws IOException {
+        byte[] scratch = null;
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                if (scratch == null) scratch = new byte[BLOCK];
+                int read = in.read(scratch, 0, (int) Math.min(scratch.length, count));
+                if (read < 0) throw new EOFException("Truncated tar archive");
+                skipped = read;
+            }
+            count -= skipped;
+        }
+    }
+
+    private boolean readBlock(byte[] block) throws IOException {
+        int filled = 0;
+        while (filled < block.length) {
+            int read = in.read(block, filled, block.length - filled);
+            if (read < 0) {
+                if (filled == 0) return false;
+                throw new EOFException("Truncated tar header");
+            }
+            filled += read;
+        }
+        return true;
+    }
+
+    private byte[] readBody(long size) throws IOException {
+        if (size > 1 << 20) throw new IOException("Tar metadata entry too large: " + size);
+        byte[] body = new byte[(int) size];
+        int filled = 0;
+        while (filled < body.length) {
+            int read = in.read(body, filled, body.length - filled);
+            if (read < 0) throw new EOFException("Truncated tar metadata entry");
+            filled += read;
+        }
+        skipFully((BLOCK - (size % BLOCK)) % BLOCK);
+        return body;
+    }
+
+    private String headerName() {
+        String name = field(header, 0, 100);
+        // ustar splits long paths into prefix + "/" + name
+        if (startsWith(header, 257, "ustar")) {
+            String prefix = field(header, 345, 155);
+            if (!prefix.isEmpty()) name = prefix + "/" + name;
+        }
+        return name;
+    }
+
+    private static String parsePaxPath(byte[] body) throws IOException {
+        // Records look like "<length> <key>=<value>\n"
+        int pos = 0;
+        while (pos < body.length) {
+            int space = pos;
+            while (space < body.length && body[space] != ' ') space++;
+            if (space >= body.length) break;
+            int length;
+            try {
+                length = Integer.parseInt(new String(body, pos, space - pos, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                break;
+            }
+            if (length <= 0 || pos + length > body.length) break;
+            // The length covers the "<length> " prefix and the trailing newline
+            if (length < space - pos + 2 || body[pos + length - 1] != '\n') {
+                throw new IOException("Malformed pax header record at offset " + pos);
+            }
+            String record = new String(body, space + 1, pos + length - space - 2, StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) return record.substring(5);
+            pos += length;
+        }
+        return null;
+    }
+
+    private static long parseSize(byte[] block, int offset, int length) {
+        if ((block[offset] & 0x80) != 0) {
+            // GNU base-256 encoding for sizes that do not fit in octal
+            long value = block[offset] & 0x7F;
+            for (int i = 1; i < length; i++) value = (value << 8) | (block[offset + i] & 0xFF);
+            return value;
+        }
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = block[i];
+            if (b == 0 || b == ' ') {
+                if (value != 0) break;
+                continue;
+            }
+            value = (value << 3) + (b - '0');
+        }
+        return value;
+    }
+
+    private static String field(byte[] block, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && block[end] != 0) end++;
+        return new String(block, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static String trimNul(byte[] bytes) {
+        return field(bytes, 0, bytes.length);
+    }
+
+    private static boolean startsWith(byte[] block, int offset, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (block[offset + i] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) return false;
+        }
+        return true;
+    }
+}
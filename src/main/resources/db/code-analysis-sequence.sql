@@ -0,0 +1,13 @@
+-- code_analysis ids come from a pooled sequence: Hibernate (allocationSize = 50) and the bulk
+-- writer both treat each nextval as the top of a block of 50 ids. Databases created with a
+-- SERIAL id (increment 1) are moved over here; a fresh database gets the sequence from Hibernate.
+-- Runs on every startup and is a no-op once the increment is 50.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_sequences
+               WHERE schemaname = current_schema() AND sequencename = 'code_analysis_id_seq'
+                 AND increment_by <> 50) THEN
+        ALTER SEQUENCE code_analysis_id_seq INCREMENT BY 50;
+    END IF;
+END
+$$;
@@ -0,0 +1,28 @@
+package com.example.demo.cli;
+
+import com.example.demo.service.AnalyzerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.web.SecurityFilterChain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The non-web context that {@code analyze --format=db} boots: it must start without the
+ * servlet-only beans (web security, MVC interceptors) and provide the save path.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class AnalyzeCommandContextTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Test
+	void databaseModeContextLoads() {
+		assertNotNull(context.getBean(AnalyzerService.class));
+		assertEquals(0, context.getBeanNamesForType(SecurityFilterChain.class).length);
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadReplicaRoutingDataSourceTest {
+
+	private final FakePool primary = new FakePool();
+	private final FakePool replica = new FakePool();
+
+	@AfterEach
+	void clearReadOnly() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	void routesByTransactionReadOnlyFlag() throws Exception {
+		DataSource routing = new ReadReplicaRoutingDataSource(primary.dataSource(), replica.dataSource());
+
+		routing.getConnection();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		routing.getConnection();
+
+		assertEquals(1, primary.handedOut.get());
+		assertEquals(1, replica.handedOut.get());
+	}
+
+	@Test
+	void lazyProxyRoutesOnFirstUseNotOnGetConnection() throws Exception {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+		dataSource.setTargetDataSource(new ReadReplicaRoutingDataSource(primary.dataSource(), replica.dataSource()));
+		// Known defaults, so the proxy does not borrow a connection to probe them
+		dataSource.setDefaultAutoCommit(true);
+		dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		dataSource.afterPropertiesSet();
+
+		// The transaction manager takes its connection before marking the transaction read-only
+		Connection connection = dataSource.getConnection();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		connection.createStatement();
+
+		assertEquals(0, primary.handedOut.get());
+		assertEquals(1, replica.handedOut.get());
+	}
+
+	/**
+	 * Stand-in for a connection pool that counts the connections it hands out
+	 */
+	private static class FakePool {
+		final AtomicInteger handedOut = new AtomicInteger();
+
+		DataSource dataSource() {
+			return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+					(proxy, method, args) -> {
+						if (method.getName().equals("getConnection")) {
+							handedOut.incrementAndGet();
+							return connection();
+						}
+						return defaultValue(method.getReturnType());
+					});
+		}
+
+		private static Connection connection() {
+			return (Connection) Proxy.newProxyInstance(FakePool.class.getClassLoader(), new Class<?>[]{Connection.class},
+					(proxy, method, args) -> {
+						if (method.getName().equals("getAutoCommit")) return true;
+						if (method.getName().equals("getTransactionIsolation")) return Connection.TRANSACTION_READ_COMMITTED;
+						return defaultValue(method.getReturnType());
+					});
+		}
+
+		private static Object defaultValue(Class<?> type) {
+			if (type == boolean.class) return false;
+			if (type == int.class) return 0;
+			if (type == long.class) return 0L;
+			return null;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailServiceTest {
+
+	@Test
+	void deliversQueuedMailInBatches() throws Exception {
+		try (FakeSmtpServer smtp = new FakeSmtpServer(0)) {
+			EmailService service = new EmailService(Optional.of(smtp.sender()), 100, 50, 3, 10);
+			for (int i = 0; i < 20; i++) {
+				service.sendOTP("user" + i + "@example.com", "123456");
+			}
+			service.shutdown();
+
+			assertEquals(20, smtp.delivered.get());
+			assertTrue(smtp.connections.get() < 20, "expected messages to share connections");
+		}
+	}
+
+	@Test
+	void retriesRefusedRecipients() throws Exception {
+		try (FakeSmtpServer smtp = new FakeSmtpServer(2)) {
+			EmailService service = new EmailService(Optional.of(smtp.sender()), 100, 50, 4, 10);
+			service.sendOTP("user@example.com", "123456");
+			service.shutdown();
+
+			assertEquals(1, smtp.delivered.get());
+			assertEquals(3, smtp.recipients.get());
+		}
+	}
+
+	/**
+	 * Just enough SMTP for JavaMail; the first {@code refusals} recipients get a temporary failure
+	 */
+	private static class FakeSmtpServer implements AutoCloseable {
+
+		final AtomicInteger connections = new AtomicInteger();
+		final AtomicInteger recipients = new AtomicInteger();
+		final AtomicInteger delivered = new AtomicInteger();
+
+		private final ServerSocket server;
+		private final int refusals;
+
+		FakeSmtpServer(int refusals) throws IOException {
+			this.refusals = refusals;
+			this.server = new ServerSocket(0);
+			Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+			acceptor.setDaemon(true);
+			acceptor.start();
+		}
+
+		JavaMailSenderImpl sender() {
+			JavaMailSenderImpl sender = new JavaMailSenderImpl();
+			sender.setHost("localhost");
+			sender.setPort(server.getLocalPort());
+			return sender;
+		}
+
+		private void acceptLoop() {
+			while (!server.isClosed()) {
+				try (Socket socket = server.accept()) {
+					connections.incrementAndGet();
+					converse(socket);
+				} catch (IOException e) {
+					// Closed by the test or the client went away
+				}
+			}
+		}
+
+		private void converse(Socket socket) throws IOException {
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+			OutputStream out = socket.getOutputStream();
+			reply(out, "220 localhost ESMTP");
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.toUpperCase();
+				if (command.startsWith("RCPT")) {
+					reply(out, recipients.incrementAndGet() <= refusals ? "451 Try again later" : "250 OK");
+				} else if (command.startsWith("DATA")) {
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					while ((line = in.readLine()) != null && !line.equals(".")) {
+						// Message body is not inspected
+					}
+					delivered.incrementAndGet();
+					reply(out, "250 OK");
+				} else if (command.startsWith("QUIT")) {
+					reply(out, "221 Bye");
+					return;
+				} else {
+					reply(out, "250 OK");
+				}
+			}
+		}
+
+		private static void reply(OutputStream out, String line) throws IOException {
+			out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			server.close();
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FileMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SourceScannerTest {
+
+	private static FileMetrics scan(String content) {
+		return new SourceScanner().accept(content).finish("Test.java");
+	}
+
+	@Test
+	void countsLinesLikeStringSplit() {
+		assertEquals(1, scan("").getTotalLines());
+		assertEquals(3, scan("a\n\nb\n\n\n").getTotalLines());
+		assertEquals(1, scan("a\n\nb\n\n\n").getBlankLines());
+		assertEquals(0, scan("\n\n").getTotalLines());
+	}
+
+	@Test
+	void matchesLineRules() {
+		FileMetrics m = scan(
+				"import java.util.List;\n" +
+				"// comment\n" +
+				"public class A extends B {\n" +
+				"    @Override\n" +
+				"    public void run() {\n" +
+				"        int x = 1;\n" +
+				"        if (x > 0 && y) { try { } catch (E e) { } finally { } }\n" +
+				"    }\n" +
+				"}\n");
+
+		assertEquals(9, m.getTotalLines());
+		assertEquals(1, m.getImportCount());
+		assertEquals(1, m.getCommentLines());
+		assertEquals(1, m.getInheritanceCount());
+		assertEquals(2, m.getEncapsulationCount());
+		assertEquals(1, m.getOverrideMethods());
+		assertEquals(1, m.getVariableCount());
+		assertEquals(2, m.getOverloadedMethods());
+		assertEquals(2, m.getCyclomaticComplexity());
+		assertEquals(1, m.getTryCount());
+		assertEquals(1, m.getCatchCount());
+		assertEquals(1, m.getFinallyCount());
+	}
+
+	@Test
+	void interiorCarriageReturnDefeatsLineRegexes() {
+		assertEquals(1, scan("int a = 1;").getVariableCount());
+		assertEquals(0, scan("int a\r= 1;").getVariableCount());
+		assertEquals(1, scan("int a = 1;\r").getVariableCount());
+	}
+
+	@Test
+	void utf8BytesMatchDecodedText() {
+		String text = "// héllo wörld 漢字 😀\nint ü = 1;\n";
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		FileMetrics expected = scan(text);
+
+		// Feed one byte at a time so every multi-byte sequence is split across calls
+		SourceScanner scanner = new SourceScanner();
+		for (int i = 0; i < bytes.length; i++) {
+			scanner.accept(bytes, i, 1);
+		}
+		FileMetrics actual = scanner.finish("Test.java");
+
+		assertEquals(expected.getTotalCharacters(), actual.getTotalCharacters());
+		assertEquals(expected.getVowels(), actual.getVowels());
+		assertEquals(expected.getConsonants(), actual.getConsonants());
+		assertEquals(expected.getSpecialChars(), actual.getSpecialChars());
+		assertEquals(expected.getVariableCount(), actual.getVariableCount());
+	}
+
+	@Test
+	void malformedUtf8IsReplacedLikeAReader() {
+		// Stray continuation byte, truncated sequence before ASCII, truncated sequence at the end
+		byte[] bytes = {'a', (byte) 0x80, 'b', (byte) 0xE2, (byte) 0x82, 'c', (byte) 0xF0, (byte) 0x9F};
+		FileMetrics expected = scan(new String(bytes, StandardCharsets.UTF_8));
+		FileMetrics actual = new SourceScanner().accept(bytes, 0, bytes.length).finish("Test.java");
+
+		assertEquals(expected.getTotalCharacters(), actual.getTotalCharacters());
+		assertEquals(expected.getSpecialChars(), actual.getSpecialChars());
+	}
+
+	@Test
+	void overlongLineIsCountedButDegraded() {
+		String longLine = "int a = 1;" + " ".repeat(100) + "int b = 2;\n";
+		FileMetrics metrics = new SourceScanner(50, 0, 0).accept(longLine + "int c = 3;\n").finish("Test.java");
+
+		assertEquals(FileMetrics.Status.DEGRADED, metrics.getStatus());
+		assertEquals(2, metrics.getTotalLines());
+		assertEquals(longLine.length() + 11, metrics.getTotalCharacters());
+		assertEquals(FileMetrics.Status.COMPLETE, scan("int c = 3;\n").getStatus());
+	}
+
+	@Test
+	void timeBlockedOnInputIsNotBudgeted() throws IOException {
+		byte[] content = "int a = 1;\n".repeat(8_000).getBytes(StandardCharsets.UTF_8);
+		// A slow client: every read waits longer than the whole budget
+		InputStream slow = new ByteArrayInputStream(content) {
+			@Override
+			public synchronized int read(byte[] buffer, int offset, int length) {
+				try {
+					Thread.sleep(150);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				return super.read(buffer, offset, length);
+			}
+		};
+		FileMetrics metrics = new SourceScanner(0, 0, TimeUnit.MILLISECONDS.toNanos(100)).accept(slow).finish("Test.java");
+
+		assertEquals(FileMetrics.Status.COMPLETE, metrics.getStatus());
+		assertEquals(8_000, metrics.getTotalLines());
+	}
+}